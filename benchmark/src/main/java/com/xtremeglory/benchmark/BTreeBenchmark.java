@@ -0,0 +1,155 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BTree在不同阶数(DIM),关键字分布与关键字类型下的插入,查找,删除与遍历.
+ * 关键字类型为STRING时compareTo的代价较高, 用于观察dispatch的比较次数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class BTreeBenchmark {
+    public enum Distribution {
+        SEQUENTIAL, RANDOM
+    }
+
+    public enum KeyType {
+        INTEGER, STRING
+    }
+
+    @Param({"3", "8", "16", "32", "64", "99"})
+    public int dim;
+
+    @Param
+    public Distribution distribution;
+
+    @Param
+    public KeyType key_type;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1000"})
+    public int batch;
+
+    private Comparable[] keys;
+    private Comparable[] probes;
+    private Comparable[][] batches;
+    private BTree tree;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        this.keys = new Comparable[this.size];
+        for (int i = 0; i < this.size; ++i) {
+            int value = this.distribution == Distribution.SEQUENTIAL ? i : random.nextInt();
+            this.keys[i] = this.key_type == KeyType.INTEGER ? (Comparable) value : String.format("key-%012d", value);
+        }
+        this.tree = new BTree(this.dim);
+        for (Comparable key : this.keys) {
+            if (!this.tree.contains(key)) {
+                this.tree = this.tree.insert(key);
+            }
+        }
+        this.probes = new Comparable[4096];
+        for (int i = 0; i < this.probes.length; ++i) {
+            this.probes[i] = this.keys[random.nextInt(this.size)];
+        }
+        // 每个批次是树中已有关键字的一个有序子集, 不含重复
+        this.batches = new Comparable[16][];
+        for (int i = 0; i < this.batches.length; ++i) {
+            Comparable[] batch = new Comparable[this.batch];
+            for (int j = 0; j < batch.length; ++j) {
+                batch[j] = this.keys[random.nextInt(this.size)];
+            }
+            Arrays.sort(batch);
+            int distinct = 0;
+            for (int j = 0; j < batch.length; ++j) {
+                if (distinct == 0 || batch[j].compareTo(batch[distinct - 1]) != 0) {
+                    batch[distinct++] = batch[j];
+                }
+            }
+            this.batches[i] = Arrays.copyOf(batch, distinct);
+        }
+    }
+
+    private Comparable nextProbe() {
+        return this.probes[this.cursor++ & (this.probes.length - 1)];
+    }
+
+    /**
+     * 逐个插入全部关键字, 每次调用构建一棵完整的树
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public BTree insertAll() {
+        BTree tree = new BTree(this.dim);
+        for (Comparable key : this.keys) {
+            tree = tree.insert(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public Object find() {
+        return this.tree.find(this.nextProbe());
+    }
+
+    /**
+     * 删除后立即插入同一个关键字, 保持树的规模不变
+     */
+    @Benchmark
+    public void removeInsert() {
+        Comparable key = this.nextProbe();
+        this.tree = this.tree.remove(key);
+        this.tree = this.tree.insert(key);
+    }
+
+    /**
+     * 逐个删除再逐个插入一个有序批次, 作为removeInsertBatch的对照
+     */
+    @Benchmark
+    public void removeInsertEach() {
+        Comparable[] batch = this.batches[this.cursor++ & (this.batches.length - 1)];
+        for (Comparable key : batch) {
+            this.tree = this.tree.remove(key);
+        }
+        for (Comparable key : batch) {
+            this.tree = this.tree.insert(key);
+        }
+    }
+
+    /**
+     * 通过removeAll与insertAll整批删除再插入, 每个受影响的节点只访问一次
+     */
+    @Benchmark
+    public void removeInsertBatch() {
+        Comparable[] batch = this.batches[this.cursor++ & (this.batches.length - 1)];
+        this.tree = this.tree.removeAll(batch);
+        this.tree = this.tree.insertAll(batch);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterate(Blackhole blackhole) {
+        for (Object key : this.tree) {
+            blackhole.consume(key);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+import com.xtremeglory.impl.recursion.tree.btree.ByteKeyBTree;
+import com.xtremeglory.impl.recursion.tree.btree.ByteKeys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复合关键字(租户, 订单号)的查找: String关键字逐字符调用compareTo, 字节串关键字先比较8字节的long.
+ * 同一租户的关键字共享较长的前缀, 用于观察前缀压缩的效果
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteKeyBTreeBenchmark {
+    public enum Implementation {
+        STRING, BYTES, BYTES_PREFIX_COMPRESSED
+    }
+
+    @Param({"16", "64"})
+    public int dim;
+
+    @Param
+    public Implementation implementation;
+
+    @Param({"100000"})
+    public int size;
+
+    private String[] string_probes;
+    private byte[][] byte_probes;
+    private BTree<String> string_tree;
+    private ByteKeyBTree byte_tree;
+    private int cursor;
+
+    private static String tenant(int value) {
+        return "tenant-" + (value % 16) + "/region-cn-east/orders";
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int[] values = new int[this.size];
+        for (int i = 0; i < this.size; ++i) {
+            values[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        if (this.implementation == Implementation.STRING) {
+            this.string_tree = new BTree<>(this.dim);
+            for (int value : values) {
+                this.string_tree = this.string_tree.insert(tenant(value) + "/" + String.format("%010d", value));
+            }
+        } else {
+            this.byte_tree = new ByteKeyBTree(this.dim, this.implementation == Implementation.BYTES_PREFIX_COMPRESSED);
+            for (int value : values) {
+                this.byte_tree = this.byte_tree.insert(ByteKeys.concat(ByteKeys.of(tenant(value)), ByteKeys.of(value)));
+            }
+        }
+        this.string_probes = new String[4096];
+        this.byte_probes = new byte[4096][];
+        for (int i = 0; i < this.string_probes.length; ++i) {
+            int value = values[random.nextInt(this.size)];
+            this.string_probes[i] = tenant(value) + "/" + String.format("%010d", value);
+            this.byte_probes[i] = ByteKeys.concat(ByteKeys.of(tenant(value)), ByteKeys.of(value));
+        }
+    }
+
+    @Benchmark
+    public boolean find() {
+        int probe = this.cursor++ & (this.string_probes.length - 1);
+        if (this.implementation == Implementation.STRING) {
+            return this.string_tree.find(this.string_probes[probe]) != null;
+        } else {
+            return this.byte_tree.contains(this.byte_probes[probe]);
+        }
+    }
+}
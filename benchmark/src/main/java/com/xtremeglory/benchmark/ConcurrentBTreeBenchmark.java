@@ -0,0 +1,78 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.concurrent.tree.btree.ConcurrentBTree;
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程下ConcurrentBTree与全局锁保护的BTree的吞吐量对比, 可以用 -t 参数改变线程数观察扩展性.
+ * read_percent为查找操作的比例, 其余操作在插入与删除之间平分
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentBTreeBenchmark {
+    public enum Implementation {
+        CONCURRENT_BTREE, SYNCHRONIZED_BTREE
+    }
+
+    @Param({"CONCURRENT_BTREE", "SYNCHRONIZED_BTREE"})
+    public Implementation implementation;
+
+    @Param({"16", "64"})
+    public int dim;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"100", "90", "50"})
+    public int read_percent;
+
+    private ConcurrentBTree<Integer> concurrent;
+    private BTree<Integer> tree;
+    private final Object lock = new Object();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.concurrent = new ConcurrentBTree<>(this.dim);
+        this.tree = new BTree<>(this.dim);
+        for (int i = 0; i < this.size; i += 2) {
+            this.concurrent.insert(i);
+            this.tree = this.tree.insert(i);
+        }
+    }
+
+    @Benchmark
+    public Object operation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(this.size);
+        int dice = random.nextInt(100);
+        if (this.implementation == Implementation.CONCURRENT_BTREE) {
+            if (dice < this.read_percent) {
+                return this.concurrent.find(key);
+            } else if ((dice & 1) == 0) {
+                return this.concurrent.insert(key);
+            } else {
+                return this.concurrent.remove(key);
+            }
+        }
+        synchronized (this.lock) {
+            if (dice < this.read_percent) {
+                return this.tree.find(key);
+            } else if ((dice & 1) == 0) {
+                return this.tree = this.tree.insert(key);
+            } else {
+                BTree<Integer> removed = this.tree.remove(key);
+                // BTree在删空时返回null, 基准中的元素总数不会降为0
+                return this.tree = removed != null ? removed : new BTree<>(this.dim);
+            }
+        }
+    }
+}
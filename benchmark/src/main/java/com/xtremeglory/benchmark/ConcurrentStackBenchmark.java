@@ -0,0 +1,89 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.AbstractStack;
+import com.xtremeglory.impl.Stack;
+import com.xtremeglory.impl.concurrent.stack.ConcurrentStack;
+import com.xtremeglory.impl.iteration.list.LinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程共享一个栈时的吞吐量, 每次调用压入一个元素再弹出一个元素.
+ * 对比无锁的ConcurrentStack(是否使用消除退避)与用synchronized包装的Stack, 可以用 -t 参数改变线程数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentStackBenchmark {
+    public enum Implementation {
+        CONCURRENT_STACK, ELIMINATION_STACK, SYNCHRONIZED_STACK
+    }
+
+    /**
+     * 每个方法都在同一个锁上同步的Stack
+     */
+    static final class SynchronizedStack<E> extends Stack<E> {
+        SynchronizedStack(List<E> list) {
+            super(list);
+        }
+
+        @Override
+        public synchronized void push(E element) {
+            super.push(element);
+        }
+
+        @Override
+        public synchronized E pop() {
+            return super.pop();
+        }
+
+        @Override
+        public synchronized E top() {
+            return super.top();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return super.isEmpty();
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+    }
+
+    @Param({"CONCURRENT_STACK", "ELIMINATION_STACK", "SYNCHRONIZED_STACK"})
+    public Implementation implementation;
+
+    private AbstractStack<Integer> stack;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (this.implementation) {
+            case CONCURRENT_STACK:
+                this.stack = new ConcurrentStack<>();
+                break;
+            case ELIMINATION_STACK:
+                this.stack = new ConcurrentStack<>(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+                break;
+            default:
+                this.stack = new SynchronizedStack<>(new LinkedList<>());
+        }
+    }
+
+    /**
+     * 每个线程先压入再弹出, 栈中的元素个数不会小于0, 因此pop不会遇到空栈
+     */
+    @Benchmark
+    public Integer pushPop() {
+        this.stack.push(1);
+        return this.stack.pop();
+    }
+}
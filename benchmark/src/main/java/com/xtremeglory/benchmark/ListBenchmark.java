@@ -0,0 +1,120 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+import com.xtremeglory.impl.iteration.list.UnrolledLinkedList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List各实现的插入,随机访问,删除与查找
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListBenchmark {
+    public enum Implementation {
+        RECURSIVE_LINKED_LIST {
+            @Override
+            <E> List<E> create() {
+                return new com.xtremeglory.impl.recursion.list.LinkedList<>();
+            }
+        },
+        LINKED_LIST {
+            @Override
+            <E> List<E> create() {
+                return new com.xtremeglory.impl.iteration.list.LinkedList<>();
+            }
+        },
+        UNROLLED_LINKED_LIST {
+            @Override
+            <E> List<E> create() {
+                return new UnrolledLinkedList<>();
+            }
+        },
+        ARRAY_LIST {
+            @Override
+            <E> List<E> create() {
+                return new ArrayList<>();
+            }
+        };
+
+        abstract <E> List<E> create();
+    }
+
+    @Param
+    public Implementation implementation;
+
+    // 递归实现每个元素占用一个栈帧, 规模不宜超过默认栈深度
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Integer> list;
+    private int[] indexes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.list = this.implementation.create();
+        for (int i = 0; i < this.size; ++i) {
+            this.list.insert(i, i);
+        }
+        Random random = new Random(42);
+        this.indexes = new int[1024];
+        for (int i = 0; i < this.indexes.length; ++i) {
+            this.indexes[i] = random.nextInt(this.size);
+        }
+    }
+
+    private int nextIndex() {
+        return this.indexes[this.cursor++ & (this.indexes.length - 1)];
+    }
+
+    /**
+     * 从空表开始在表尾追加size个元素
+     */
+    @Benchmark
+    public List<Integer> appendAll() {
+        List<Integer> list = this.implementation.create();
+        for (int i = 0; i < this.size; ++i) {
+            list.insert(i, list.size());
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void insertRemoveHead() {
+        this.list.insert(-1, 0);
+        this.list.remove(0);
+    }
+
+    @Benchmark
+    public void insertRemoveRandom() {
+        int index = this.nextIndex();
+        this.list.insert(-1, index);
+        this.list.remove(index);
+    }
+
+    @Benchmark
+    public Integer get() {
+        return this.list.get(this.nextIndex());
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return this.list.indexOf(this.nextIndex());
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Integer value : this.list) {
+            blackhole.consume(value);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.xtremeglory.benchmark;
+
+import com.xtremeglory.impl.AbstractStack;
+import com.xtremeglory.impl.Stack;
+import com.xtremeglory.impl.iteration.list.LinkedList;
+import com.xtremeglory.impl.iteration.stack.ArrayStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stack的压栈与出栈, depth为每次调用压入再弹出的元素个数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StackBenchmark {
+    public enum Implementation {
+        LINKED_LIST, ARRAY_STACK
+    }
+
+    @Param({"LINKED_LIST", "ARRAY_STACK"})
+    public Implementation implementation;
+
+    @Param({"1", "16", "1024"})
+    public int depth;
+
+    private AbstractStack<Integer> stack;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.stack = this.implementation == Implementation.ARRAY_STACK ? new ArrayStack<>() : new Stack<>(new LinkedList<>());
+    }
+
+    @Benchmark
+    public int pushPop() {
+        for (int i = 0; i < this.depth; ++i) {
+            this.stack.push(i);
+        }
+        int total = 0;
+        for (int i = 0; i < this.depth; ++i) {
+            total += this.stack.pop();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,31 @@
+package com.xtremeglory.impl;
+
+/**
+ * 栈的公共操作. 基于List的Stack, 基于数组的ArrayStack与无锁的ConcurrentStack都直接继承此类,
+ * 新增的操作必须由每个实现类分别提供, 遗漏时在编译期报错
+ *
+ * @param <E>
+ */
+public abstract class AbstractStack<E> {
+    public abstract void push(E element);
+
+    /**
+     * 栈为空时抛出ArrayIndexOutOfBoundsException
+     *
+     * @return 被弹出的栈顶元素
+     */
+    public abstract E pop();
+
+    /**
+     * 栈为空时抛出ArrayIndexOutOfBoundsException
+     *
+     * @return 栈顶元素
+     */
+    public abstract E top();
+
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+}
@@ -1,9 +1,16 @@
 package com.xtremeglory.impl;
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * @param <E>
  */
-public interface List<E> {
+public interface List<E> extends Iterable<E> {
     // 增删改查
 
     /**
@@ -43,6 +50,79 @@ public interface List<E> {
         return this.remove(element, 0);
     }
 
+    // 批量操作
+
+    /**
+     * 将source中的元素按顺序插入到索引(index)指定的位置, 插入后第一个新元素位于index处.
+     * 默认实现逐个调用insert, 各实现类应当覆盖此方法, 只定位一次再整体拼接
+     *
+     * @param source 待插入的元素, 默认实现要求source不是当前表
+     * @param index  插入的起始位置
+     */
+    default void insertAll(Iterable<? extends E> source, int index) {
+        if (index > this.size() || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        for (E element : source) {
+            this.insert(element, index++);
+        }
+    }
+
+    /**
+     * 在表尾追加source中的所有元素
+     *
+     * @param source 待插入的元素
+     */
+    default void addAll(Iterable<? extends E> source) {
+        this.insertAll(source, this.size());
+    }
+
+    /**
+     * 删除索引区间[from, to)中的所有元素
+     *
+     * @param from 起始索引(包含)
+     * @param to   结束索引(不包含)
+     */
+    default void removeRange(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > this.size()) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        for (int i = from; i < to; ++i) {
+            this.remove(from);
+        }
+    }
+
+    /**
+     * 一次遍历删除所有满足条件的元素
+     *
+     * @param filter 删除条件
+     * @return 被删除的元素个数
+     */
+    default int removeIf(Predicate<? super E> filter) {
+        int removed = 0;
+        Iterator<E> iterator = this.iterator();
+        while (iterator.hasNext()) {
+            if (filter.test(iterator.next())) {
+                iterator.remove();
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 一次遍历保留所有满足条件的元素, 删除其余元素
+     *
+     * @param filter 保留条件
+     * @return 被删除的元素个数
+     */
+    default int retainIf(Predicate<? super E> filter) {
+        return this.removeIf(filter.negate());
+    }
+
     /**
      * 设置索引位置(index)的值为指定元素(element)的值
      *
@@ -148,4 +228,33 @@ public interface List<E> {
      * @return 新的数组
      */
     E[] asList();
+
+    /**
+     * 按从表头到表尾的顺序遍历表中元素, 完整遍历一次的复杂度为O(n).
+     * 迭代器是快速失败(fail-fast)的: 迭代过程中如果表被迭代器以外的方式修改了结构,
+     * 下一次调用next()或remove()会抛出ConcurrentModificationException;
+     * 迭代器的remove()会原地删除上一次next()返回的元素
+     *
+     * @return 表的迭代器
+     */
+    @Override
+    Iterator<E> iterator();
+
+    /**
+     * 默认基于迭代器, 只能按批次切分; 支持随机访问的实现应当覆盖此方法, 按下标区间切分
+     *
+     * @return 表的Spliterator
+     */
+    @Override
+    default Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(), Spliterator.ORDERED);
+    }
+
+    default Stream<E> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    default Stream<E> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
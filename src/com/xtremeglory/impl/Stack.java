@@ -1,28 +1,33 @@
 package com.xtremeglory.impl;
 
-public class Stack<E> {
+public class Stack<E> extends AbstractStack<E> {
     protected List<E> list;
 
     public Stack(List<E> list) {
         this.list = list;
     }
 
+    @Override
     public void push(E element){
         this.list.insert(element,0);
     }
 
+    @Override
     public E pop(){
         return this.list.remove(0);
     }
 
+    @Override
     public E top(){
         return this.list.get(0);
     }
 
+    @Override
     public boolean isEmpty(){
         return this.list.isEmpty();
     }
 
+    @Override
     public int size(){
         return this.list.size();
     }
@@ -1,5 +1,10 @@
 package com.xtremeglory.impl;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface Tree<E extends Comparable<E>> extends Iterable<E>{
     int size();
 
@@ -17,4 +22,21 @@ public interface Tree<E extends Comparable<E>> extends Iterable<E>{
     void travel(Visitor<E> visitor);
 
     List<E> asList();
+
+    /**
+     * 默认按迭代器的顺序切分, 元素升序且不重复; 能够按结构切分的实现应当覆盖此方法
+     */
+    @Override
+    default Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    default Stream<E> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    default Stream<E> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
@@ -0,0 +1,162 @@
+package com.xtremeglory.impl.concurrent.stack;
+
+import com.xtremeglory.impl.AbstractStack;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁的Treiber栈: 栈顶是一个AtomicReference, push与pop都是对栈顶的一次CAS, 失败时重试.
+ * 节点在出栈后不会被重用, 由GC回收, 因此不存在ABA问题.
+ * <p>
+ * 可选的消除(elimination)退避: 高竞争下对栈顶的CAS失败后, push在消除数组的随机槽位中挂出自己的节点并等待片刻,
+ * 同时CAS失败的pop从随机槽位中直接取走节点, 一对push与pop相互抵消而不再争用栈顶.
+ * <p>
+ * size()需要遍历整个栈, 在并发修改时只是一个近似值.
+ *
+ * @param <E>
+ */
+public class ConcurrentStack<E> extends AbstractStack<E> {
+    private static final class Node<E> {
+        final E element;
+        Node<E> next;
+
+        Node(E element) {
+            this.element = element;
+        }
+    }
+
+    // push在槽位中等待被取走的自旋次数
+    private static final int ELIMINATION_SPINS = 64;
+
+    private final AtomicReference<Node<E>> top;
+    // 为null时不使用消除退避
+    private final AtomicReferenceArray<Node<E>> elimination;
+
+    public ConcurrentStack() {
+        this(0);
+    }
+
+    /**
+     * @param elimination_width 消除数组的槽位数, 为0时不使用消除退避; 一般取线程数的一半左右
+     */
+    public ConcurrentStack(int elimination_width) {
+        if (elimination_width < 0) {
+            throw new IllegalArgumentException("elimination_width: " + elimination_width);
+        }
+        this.top = new AtomicReference<>();
+        this.elimination = elimination_width == 0 ? null : new AtomicReferenceArray<>(elimination_width);
+    }
+
+    @Override
+    public void push(E element) {
+        Node<E> node = new Node<>(element);
+        while (true) {
+            Node<E> top = this.top.get();
+            node.next = top;
+            if (this.top.compareAndSet(top, node)) {
+                return;
+            }
+            if (this.elimination != null && this.offer(node)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 把节点挂在随机槽位中等待pop取走
+     *
+     * @return 节点是否被取走
+     */
+    private boolean offer(Node<E> node) {
+        int slot = ThreadLocalRandom.current().nextInt(this.elimination.length());
+        if (!this.elimination.compareAndSet(slot, null, node)) {
+            return false;
+        }
+        for (int i = 0; i < ELIMINATION_SPINS; ++i) {
+            if (this.elimination.get(slot) != node) {
+                return true;
+            }
+        }
+        // 撤回失败说明节点刚好被取走
+        return !this.elimination.compareAndSet(slot, node, null);
+    }
+
+    /**
+     * 从随机槽位中取走一个push挂出的节点
+     *
+     * @return 取走的节点, 槽位为空时返回null
+     */
+    private Node<E> take() {
+        int slot = ThreadLocalRandom.current().nextInt(this.elimination.length());
+        Node<E> node = this.elimination.get(slot);
+        if (node != null && this.elimination.compareAndSet(slot, node, null)) {
+            return node;
+        }
+        return null;
+    }
+
+    /**
+     * 栈为空时抛出ArrayIndexOutOfBoundsException, 与AbstractStack的约定一致
+     */
+    @Override
+    public E pop() {
+        Node<E> node = this.popNode();
+        if (node == null) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        return node.element;
+    }
+
+    /**
+     * 非阻塞的出栈, 栈为空时返回null而不是抛出异常(因此元素不应为null)
+     *
+     * @return 栈顶元素或null
+     */
+    public E tryPop() {
+        Node<E> node = this.popNode();
+        return node == null ? null : node.element;
+    }
+
+    private Node<E> popNode() {
+        while (true) {
+            Node<E> top = this.top.get();
+            if (top == null) {
+                return null;
+            }
+            if (this.top.compareAndSet(top, top.next)) {
+                return top;
+            }
+            if (this.elimination != null) {
+                Node<E> node = this.take();
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+    }
+
+    @Override
+    public E top() {
+        Node<E> top = this.top.get();
+        if (top == null) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        return top.element;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.top.get() == null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Node<E> node = this.top.get(); node != null; node = node.next) {
+            ++size;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,697 @@
+package com.xtremeglory.impl.concurrent.tree.btree;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.Tree;
+import com.xtremeglory.impl.Visitor;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 线程安全的BTree, 节点布局与BTree一致(节点最多DIM - 1个元素, 元素个数下限为(DIM - 1) / 2).
+ * <p>
+ * 每个节点带有一个StampedLock作为闩(latch), 根节点的引用由root_latch保护, 根节点的变化只发生在root_latch之下,
+ * 因此ConcurrentBTree对象本身是一个稳定的句柄, insert与remove总是返回this.
+ * <ul>
+ * <li>读: 乐观版本校验. 沿路径读取节点时不加锁, 读取子节点引用后再校验父节点的版本, 校验失败时从根重新开始;
+ * 多次失败后退化为读闩的闩耦合(latch coupling), 读操作之间不会互相写共享内存.</li>
+ * <li>写: 先乐观地下降到叶子, 只把叶子升级为写闩, 叶子在本次操作后不会分裂或下溢时直接完成;
+ * 否则从根开始使用写闩的闩耦合, 一旦子节点是安全的(插入时不会分裂, 删除时不会下溢)就释放所有祖先,
+ * 因此写操作只在子树重叠时互相竞争.</li>
+ * </ul>
+ * 遍历(iterator, travel, asList)是弱一致的: 每一步独立地查找上一个元素的后继, 不会阻塞写操作.
+ *
+ * @param <E>
+ */
+public class ConcurrentBTree<E extends Comparable<E>> implements Tree<E> {
+    static final class Node<E> {
+        final StampedLock latch;
+        int size;
+        // 多出的一个位置用于分裂前的暂存
+        final Object[] elements;
+        // 叶子节点为null, 节点的类型在创建后不会改变
+        final Node<E>[] children;
+
+        @SuppressWarnings("unchecked")
+        Node(int DIM, boolean leaf) {
+            this.latch = new StampedLock();
+            this.size = 0;
+            this.elements = new Object[DIM];
+            this.children = leaf ? null : new Node[DIM + 1];
+        }
+
+        boolean isLeaf() {
+            return this.children == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        E element(int index) {
+            return (E) this.elements[index];
+        }
+    }
+
+    // 乐观尝试的次数, 超过后使用闩耦合
+    private static final int OPTIMISTIC_ATTEMPTS = 8;
+    // 乐观读取时表示需要重试
+    private static final Object RETRY = new Object();
+
+    protected final int DIM;
+    private final StampedLock root_latch;
+    private Node<E> root;
+    private final LongAdder size;
+
+    public ConcurrentBTree(int DIM) {
+        if (DIM < 3) {
+            throw new IllegalArgumentException("DIM: " + DIM);
+        }
+        this.DIM = DIM;
+        this.root_latch = new StampedLock();
+        this.root = new Node<>(DIM, true);
+        this.size = new LongAdder();
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    /**
+     * 在节点中二分查找; 乐观读取时节点可能正在被修改, 查找范围被限制在数组长度以内
+     *
+     * @return 命中时返回下标, 否则返回 -(子树位置) - 1
+     */
+    private int search(Node<E> node, E element) {
+        int low = 0, high = Math.min(node.size, this.DIM) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = element.compareTo(node.element(middle));
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    @Override
+    public int size() {
+        return this.size.intValue();
+    }
+
+    // 查找
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E find(E element) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+            Object found = this.optimisticFind(element);
+            if (found != RETRY) {
+                return (E) found;
+            }
+            Thread.yield();
+        }
+        return this.pessimisticFind(element);
+    }
+
+    /**
+     * 乐观地读取根节点, 返回根节点的乐观版本; 失败时返回0
+     */
+    private long optimisticRoot(Node<E>[] holder) {
+        long root_stamp = this.root_latch.tryOptimisticRead();
+        if (root_stamp == 0) {
+            return 0;
+        }
+        Node<E> node = this.root;
+        long stamp = node.latch.tryOptimisticRead();
+        if (!this.root_latch.validate(root_stamp)) {
+            return 0;
+        }
+        holder[0] = node;
+        return stamp;
+    }
+
+    /**
+     * 乐观下降: 读取子节点引用并取得子节点版本后, 校验父节点版本仍然有效.
+     * 期间读到的不一致状态可能引发运行时异常, 统一视为需要重试
+     */
+    private Object optimisticFind(E element) {
+        @SuppressWarnings("unchecked")
+        Node<E>[] holder = new Node[1];
+        long stamp = this.optimisticRoot(holder);
+        if (stamp == 0) {
+            return RETRY;
+        }
+        Node<E> node = holder[0];
+        try {
+            while (true) {
+                int position = this.search(node, element);
+                if (position >= 0) {
+                    E found = node.element(position);
+                    return node.latch.validate(stamp) ? found : RETRY;
+                }
+                Node<E>[] children = node.children;
+                Node<E> child = children != null ? children[-position - 1] : null;
+                long child_stamp = child != null ? child.latch.tryOptimisticRead() : 0;
+                if (!node.latch.validate(stamp)) {
+                    return RETRY;
+                }
+                if (children == null) {
+                    return null;
+                }
+                if (child == null || child_stamp == 0) {
+                    return RETRY;
+                }
+                node = child;
+                stamp = child_stamp;
+            }
+        } catch (RuntimeException e) {
+            return RETRY;
+        }
+    }
+
+    private E pessimisticFind(E element) {
+        long root_stamp = this.root_latch.readLock();
+        Node<E> node = this.root;
+        long stamp = node.latch.readLock();
+        this.root_latch.unlockRead(root_stamp);
+        try {
+            while (true) {
+                int position = this.search(node, element);
+                if (position >= 0) {
+                    return node.element(position);
+                }
+                if (node.isLeaf()) {
+                    return null;
+                }
+                Node<E> child = node.children[-position - 1];
+                long child_stamp = child.latch.readLock();
+                node.latch.unlockRead(stamp);
+                node = child;
+                stamp = child_stamp;
+            }
+        } finally {
+            node.latch.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 严格大于element的最小元素, element为null时返回最小元素; 使用读闩耦合
+     */
+    private E higher(E element) {
+        long root_stamp = this.root_latch.readLock();
+        Node<E> node = this.root;
+        long stamp = node.latch.readLock();
+        this.root_latch.unlockRead(root_stamp);
+        E candidate = null;
+        try {
+            while (true) {
+                int position = 0;
+                if (element != null) {
+                    position = this.search(node, element);
+                    position = position >= 0 ? position + 1 : -position - 1;
+                }
+                if (position < node.size) {
+                    candidate = node.element(position);
+                }
+                if (node.isLeaf()) {
+                    return candidate;
+                }
+                Node<E> child = node.children[position];
+                long child_stamp = child.latch.readLock();
+                node.latch.unlockRead(stamp);
+                node = child;
+                stamp = child_stamp;
+            }
+        } finally {
+            node.latch.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 乐观下降到element所在的叶子并把叶子升级为写闩. 如果下降途中在内部节点命中element, 叶子为null
+     *
+     * @return 成功时返回写闩的版本, 此时holder[0]为叶子; 需要重试时返回0
+     */
+    private long optimisticLeaf(E element, Node<E>[] holder) {
+        long stamp = this.optimisticRoot(holder);
+        if (stamp == 0) {
+            return 0;
+        }
+        Node<E> node = holder[0];
+        try {
+            while (!node.isLeaf()) {
+                int position = this.search(node, element);
+                if (position >= 0) {
+                    if (!node.latch.validate(stamp)) {
+                        return 0;
+                    }
+                    holder[0] = null;
+                    return -1;
+                }
+                Node<E> child = node.children[-position - 1];
+                long child_stamp = child != null ? child.latch.tryOptimisticRead() : 0;
+                if (!node.latch.validate(stamp) || child_stamp == 0) {
+                    return 0;
+                }
+                node = child;
+                stamp = child_stamp;
+            }
+        } catch (RuntimeException e) {
+            return 0;
+        }
+        holder[0] = node;
+        return node.latch.tryConvertToWriteLock(stamp);
+    }
+
+    // 写操作使用的路径记录
+
+    private final class Path {
+        Node<E>[] nodes;
+        long[] stamps;
+        int[] positions;
+        boolean[] held;
+        int depth;
+        long root_stamp;
+
+        @SuppressWarnings("unchecked")
+        Path() {
+            this.nodes = new Node[8];
+            this.stamps = new long[8];
+            this.positions = new int[8];
+            this.held = new boolean[8];
+            this.depth = 0;
+            this.root_stamp = root_latch.writeLock();
+        }
+
+        void push(Node<E> node, long stamp, int position) {
+            if (this.depth == this.nodes.length) {
+                int capacity = this.depth * 2;
+                this.nodes = Arrays.copyOf(this.nodes, capacity);
+                this.stamps = Arrays.copyOf(this.stamps, capacity);
+                this.positions = Arrays.copyOf(this.positions, capacity);
+                this.held = Arrays.copyOf(this.held, capacity);
+            }
+            this.nodes[this.depth] = node;
+            this.stamps[this.depth] = stamp;
+            this.positions[this.depth] = position;
+            this.held[this.depth] = true;
+            this.depth++;
+        }
+
+        /**
+         * 释放路径上所有祖先的写闩以及root_latch, except位置的节点除外(-1表示不保留)
+         */
+        void releaseAncestors(int except) {
+            for (int i = 0; i < this.depth; ++i) {
+                if (this.held[i] && i != except) {
+                    this.nodes[i].latch.unlockWrite(this.stamps[i]);
+                    this.held[i] = false;
+                }
+            }
+            this.releaseRoot();
+        }
+
+        void releaseRoot() {
+            if (this.root_stamp != 0) {
+                root_latch.unlockWrite(this.root_stamp);
+                this.root_stamp = 0;
+            }
+        }
+
+        boolean holdsRoot() {
+            return this.root_stamp != 0;
+        }
+    }
+
+    // 插入
+
+    @Override
+    public ConcurrentBTree<E> insert(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+            @SuppressWarnings("unchecked")
+            Node<E>[] holder = new Node[1];
+            long stamp = this.optimisticLeaf(element, holder);
+            if (stamp == -1) {
+                // 元素已经在内部节点中
+                return this;
+            }
+            if (stamp != 0) {
+                Node<E> leaf = holder[0];
+                try {
+                    int position = this.search(leaf, element);
+                    if (position >= 0) {
+                        return this;
+                    }
+                    if (leaf.size < this.DIM - 1) {
+                        this.insertAt(leaf, -position - 1, element, null);
+                        this.size.increment();
+                        return this;
+                    }
+                } finally {
+                    leaf.latch.unlockWrite(stamp);
+                }
+                // 叶子已满, 需要分裂
+                break;
+            }
+            Thread.yield();
+        }
+        this.pessimisticInsert(element);
+        return this;
+    }
+
+    private void pessimisticInsert(E element) {
+        Path path = new Path();
+        Node<E> node = this.root;
+        long stamp = node.latch.writeLock();
+        if (node.size < this.DIM - 1) {
+            path.releaseRoot();
+        }
+        try {
+            int position;
+            while (true) {
+                position = this.search(node, element);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+                if (node.isLeaf()) {
+                    break;
+                }
+                Node<E> child = node.children[position];
+                long child_stamp = child.latch.writeLock();
+                path.push(node, stamp, position);
+                if (child.size < this.DIM - 1) {
+                    path.releaseAncestors(-1);
+                }
+                node = child;
+                stamp = child_stamp;
+            }
+
+            this.insertAt(node, position, element, null);
+            this.size.increment();
+
+            // 沿着仍然持有写闩的路径向上分裂
+            while (node.size == this.DIM) {
+                Node<E> right = this.split(node);
+                E separator = node.element(node.size);
+                node.elements[node.size] = null;
+                if (path.depth == 0) {
+                    // 只有根节点不安全时才会走到这里, 此时root_latch一定被持有
+                    Node<E> root = new Node<>(this.DIM, false);
+                    root.elements[0] = separator;
+                    root.children[0] = node;
+                    root.children[1] = right;
+                    root.size = 1;
+                    this.root = root;
+                    break;
+                }
+                node.latch.unlockWrite(stamp);
+                path.depth--;
+                node = path.nodes[path.depth];
+                stamp = path.stamps[path.depth];
+                path.held[path.depth] = false;
+                this.insertAt(node, path.positions[path.depth], separator, right);
+            }
+        } finally {
+            node.latch.unlockWrite(stamp);
+            path.releaseAncestors(-1);
+        }
+    }
+
+    /**
+     * 在position处插入元素, right为插入元素右侧的子节点(叶子为null)
+     */
+    private void insertAt(Node<E> node, int position, E element, Node<E> right) {
+        System.arraycopy(node.elements, position, node.elements, position + 1, node.size - position);
+        node.elements[position] = element;
+        if (!node.isLeaf()) {
+            System.arraycopy(node.children, position + 1, node.children, position + 2, node.size - position);
+            node.children[position + 1] = right;
+        }
+        node.size++;
+    }
+
+    /**
+     * 原地分裂: node保留左半部分, 中间元素暂存在node.elements[node.size]处, 返回新的右节点
+     */
+    private Node<E> split(Node<E> node) {
+        int middle = this.DIM / 2;
+        Node<E> right = new Node<>(this.DIM, node.isLeaf());
+        right.size = node.size - middle - 1;
+        System.arraycopy(node.elements, middle + 1, right.elements, 0, right.size);
+        Arrays.fill(node.elements, middle + 1, node.size, null);
+        if (!node.isLeaf()) {
+            System.arraycopy(node.children, middle + 1, right.children, 0, right.size + 1);
+            Arrays.fill(node.children, middle + 1, node.size + 1, null);
+        }
+        node.size = middle;
+        return right;
+    }
+
+    // 删除
+
+    @Override
+    public ConcurrentBTree<E> remove(E element) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+            @SuppressWarnings("unchecked")
+            Node<E>[] holder = new Node[1];
+            long stamp = this.optimisticLeaf(element, holder);
+            if (stamp == -1) {
+                // 元素在内部节点中, 需要用前驱替换
+                break;
+            }
+            if (stamp != 0) {
+                Node<E> leaf = holder[0];
+                try {
+                    int position = this.search(leaf, element);
+                    if (position < 0) {
+                        return this;
+                    }
+                    if (leaf.size > this.minElementSize()) {
+                        this.removeAt(leaf, position);
+                        this.size.decrement();
+                        return this;
+                    }
+                } finally {
+                    leaf.latch.unlockWrite(stamp);
+                }
+                break;
+            }
+            Thread.yield();
+        }
+        this.pessimisticRemove(element);
+        return this;
+    }
+
+    private boolean safeForRemove(Node<E> node, boolean root) {
+        return root ? node.isLeaf() || node.size > 1 : node.size > this.minElementSize();
+    }
+
+    private void pessimisticRemove(E element) {
+        Path path = new Path();
+        Node<E> node = this.root;
+        long stamp = node.latch.writeLock();
+        if (this.safeForRemove(node, true)) {
+            path.releaseRoot();
+        }
+        // 元素在内部节点中命中时, 该节点在路径中的位置; 之后沿左子树的最右路径寻找前驱
+        int pinned = -1;
+        int pinned_position = -1;
+        try {
+            while (true) {
+                int position;
+                if (pinned == -1) {
+                    position = this.search(node, element);
+                    if (position >= 0) {
+                        if (node.isLeaf()) {
+                            this.removeAt(node, position);
+                            break;
+                        }
+                        pinned = path.depth;
+                        pinned_position = position;
+                    } else if (node.isLeaf()) {
+                        return;
+                    } else {
+                        position = -position - 1;
+                    }
+                } else if (node.isLeaf()) {
+                    // 用左子树的最大值替换被删除元素
+                    Node<E> holder = path.nodes[pinned];
+                    holder.elements[pinned_position] = node.elements[node.size - 1];
+                    this.removeAt(node, node.size - 1);
+                    break;
+                } else {
+                    position = node.size;
+                }
+
+                Node<E> child = node.children[position];
+                long child_stamp = child.latch.writeLock();
+                path.push(node, stamp, position);
+                if (this.safeForRemove(child, false)) {
+                    path.releaseAncestors(pinned);
+                }
+                node = child;
+                stamp = child_stamp;
+            }
+            this.size.decrement();
+
+            // 沿着仍然持有写闩的路径向上平衡
+            Node<E> child = node;
+            for (int i = path.depth - 1; i >= 0 && child.size < this.minElementSize(); --i) {
+                this.rebalance(path.nodes[i], path.positions[i]);
+                child = path.nodes[i];
+            }
+            if (path.holdsRoot() && this.root.size == 0 && !this.root.isLeaf()) {
+                this.root = this.root.children[0];
+            }
+        } finally {
+            node.latch.unlockWrite(stamp);
+            path.releaseAncestors(-1);
+        }
+    }
+
+    private void removeAt(Node<E> node, int position) {
+        System.arraycopy(node.elements, position + 1, node.elements, position, node.size - position - 1);
+        node.elements[node.size - 1] = null;
+        node.size--;
+    }
+
+    /**
+     * 子节点children[position]元素不足时, 优先向兄弟借用, 否则与兄弟合并. 调用时parent与子节点都持有写闩, 兄弟节点在此加写闩
+     */
+    private void rebalance(Node<E> parent, int position) {
+        if (position > 0) {
+            Node<E> left = parent.children[position - 1];
+            long left_stamp = left.latch.writeLock();
+            try {
+                if (left.size > this.minElementSize()) {
+                    this.borrowFromLeft(parent, position, left, parent.children[position]);
+                    return;
+                }
+                if (position == parent.size) {
+                    this.mergeChildren(parent, position - 1, left, parent.children[position]);
+                    return;
+                }
+            } finally {
+                left.latch.unlockWrite(left_stamp);
+            }
+        }
+        Node<E> right = parent.children[position + 1];
+        long right_stamp = right.latch.writeLock();
+        try {
+            if (right.size > this.minElementSize()) {
+                this.borrowFromRight(parent, position, parent.children[position], right);
+            } else {
+                this.mergeChildren(parent, position, parent.children[position], right);
+            }
+        } finally {
+            right.latch.unlockWrite(right_stamp);
+        }
+    }
+
+    private void borrowFromLeft(Node<E> parent, int position, Node<E> left, Node<E> child) {
+        System.arraycopy(child.elements, 0, child.elements, 1, child.size);
+        child.elements[0] = parent.elements[position - 1];
+        if (!child.isLeaf()) {
+            System.arraycopy(child.children, 0, child.children, 1, child.size + 1);
+            child.children[0] = left.children[left.size];
+            left.children[left.size] = null;
+        }
+        child.size++;
+        parent.elements[position - 1] = left.elements[left.size - 1];
+        left.elements[left.size - 1] = null;
+        left.size--;
+    }
+
+    private void borrowFromRight(Node<E> parent, int position, Node<E> child, Node<E> right) {
+        child.elements[child.size] = parent.elements[position];
+        if (!child.isLeaf()) {
+            child.children[child.size + 1] = right.children[0];
+            System.arraycopy(right.children, 1, right.children, 0, right.size);
+            right.children[right.size] = null;
+        }
+        child.size++;
+        parent.elements[position] = right.elements[0];
+        this.removeAt(right, 0);
+    }
+
+    /**
+     * 把children[position + 1]与分隔元素elements[position]合并进children[position]
+     */
+    private void mergeChildren(Node<E> parent, int position, Node<E> left, Node<E> right) {
+        left.elements[left.size] = parent.elements[position];
+        System.arraycopy(right.elements, 0, left.elements, left.size + 1, right.size);
+        if (!left.isLeaf()) {
+            System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+        }
+        left.size += right.size + 1;
+        System.arraycopy(parent.children, position + 2, parent.children, position + 1, parent.size - position - 1);
+        parent.children[parent.size] = null;
+        this.removeAt(parent, position);
+    }
+
+    // 遍历
+
+    @Override
+    public void travel(Visitor<E> visitor) {
+        for (E element : this) {
+            visitor.visit(element);
+        }
+    }
+
+    @Override
+    public List<E> asList() {
+        List<E> list = new ArrayList<>();
+        this.travel(element -> list.insert(element, list.size()));
+        return list;
+    }
+
+    /**
+     * 弱一致的升序迭代器: 每次next()独立地查找上一个元素的后继, 代价为O(log n), 迭代期间的修改可能可见也可能不可见
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private E next = higher(null);
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public E next() {
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+                E element = this.next;
+                this.next = higher(element);
+                return element;
+            }
+        };
+    }
+
+    /**
+     * 并发修改时size()只是近似值, 因此不声明SIZED
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliteratorUnknownSize(this.iterator(),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+}
@@ -0,0 +1,236 @@
+package com.xtremeglory.impl.io;
+
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * BTree的二进制格式: 只保存阶与升序的元素序列, 不保存节点结构.
+ * <pre>
+ * 文件头(20字节): magic | version | DIM | size | width
+ * 元素: 定长编码时依次排列; 变长编码时每个元素前有varint格式的长度
+ * </pre>
+ * 写入时按中序遍历输出, 读取时把元素流直接交给BTree.bulkLoad自底向上构建, 总时间为O(n), 不需要逐个插入时的下降与分裂.
+ * 读写都只使用一个固定大小的缓冲区, 文件可以远大于缓冲区.
+ * 缓冲区的flip/clear都通过Buffer调用, 避免在新版JDK上编译时链接到Java 8中不存在的协变重载
+ */
+public final class BTreeSerializer {
+    private static final int MAGIC = 0x42545245;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    // varint编码的int最多5个字节
+    private static final int MAX_VARINT_SIZE = 5;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private BTreeSerializer() {
+    }
+
+    public static <E extends Comparable<E>> void write(BTree<E> tree, ElementCodec<E> codec, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(tree, codec, channel, DEFAULT_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * @param tree        要保存的树
+     * @param codec       元素的编码方式
+     * @param channel     输出的通道, 不会被关闭
+     * @param buffer_size 缓冲区大小, 超过缓冲区的单个元素会单独分配缓冲区
+     */
+    public static <E extends Comparable<E>> void write(BTree<E> tree, ElementCodec<E> codec, WritableByteChannel channel, int buffer_size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(buffer_size, HEADER_SIZE));
+        int width = codec.width();
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(tree.getDIM()).putInt(tree.size()).putInt(width);
+        for (E element : tree) {
+            int size = codec.size(element);
+            int needed = width < 0 ? size + MAX_VARINT_SIZE : size;
+            if (buffer.remaining() < needed) {
+                drain(buffer, channel);
+            }
+            if (buffer.remaining() < needed) {
+                ByteBuffer large = ByteBuffer.allocate(needed);
+                put(large, element, size, codec);
+                drain(large, channel);
+            } else {
+                put(buffer, element, size, codec);
+            }
+        }
+        drain(buffer, channel);
+    }
+
+    private static <E> void put(ByteBuffer buffer, E element, int size, ElementCodec<E> codec) {
+        if (codec.width() < 0) {
+            putVarint(buffer, size);
+        } else if (size != codec.width()) {
+            throw new IllegalStateException("fixed width codec returned size " + size);
+        }
+        int start = buffer.position();
+        codec.encode(element, buffer);
+        if (buffer.position() - start != size) {
+            throw new IllegalStateException("codec wrote " + (buffer.position() - start) + " bytes, expected " + size);
+        }
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 把缓冲区中已经写入的内容全部输出, 然后清空缓冲区
+     */
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    public static <E extends Comparable<E>> BTree<E> read(Path file, ElementCodec<E> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel, codec, 1, null, DEFAULT_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * 读取write输出的内容并重建树, 阶使用文件中保存的值
+     *
+     * @param channel     输入的通道, 不会被关闭
+     * @param codec       元素的编码方式, 必须与写入时一致
+     * @param fill_factor 重建后节点的目标填充率, 见BTree.bulkLoad
+     * @param comparator  元素的比较器, 必须与写入时树的顺序一致, 为null时使用自然顺序
+     * @param buffer_size 缓冲区大小
+     * @return 重建的树
+     */
+    public static <E extends Comparable<E>> BTree<E> read(ReadableByteChannel channel, ElementCodec<E> codec, double fill_factor, Comparator<? super E> comparator, int buffer_size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(buffer_size, HEADER_SIZE));
+        ((Buffer) buffer).flip();
+        fill(buffer, channel, HEADER_SIZE);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a BTree file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported version: " + version);
+        }
+        int DIM = buffer.getInt();
+        int size = buffer.getInt();
+        int width = buffer.getInt();
+        if (width != codec.width()) {
+            throw new IOException("element width " + width + " does not match codec width " + codec.width());
+        }
+        try {
+            return BTree.bulkLoad(new ElementReader<>(buffer, channel, codec, size), size, DIM, fill_factor, comparator);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 保证缓冲区中至少有count个未读取的字节, 调用前后缓冲区都处于读取状态
+     */
+    private static void fill(ByteBuffer buffer, ReadableByteChannel channel, int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < count) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        ((Buffer) buffer).flip();
+    }
+
+    /**
+     * 按需从通道中读取元素, 提供给bulkLoad消费
+     */
+    private static final class ElementReader<E> implements Iterator<E> {
+        private final ByteBuffer buffer;
+        private final ReadableByteChannel channel;
+        private final ElementCodec<E> codec;
+        private int remaining;
+
+        ElementReader(ByteBuffer buffer, ReadableByteChannel channel, ElementCodec<E> codec, int remaining) {
+            this.buffer = buffer;
+            this.channel = channel;
+            this.codec = codec;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (this.remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            try {
+                int size = this.codec.width() >= 0 ? this.codec.width() : this.getVarint();
+                E element;
+                if (size > this.buffer.capacity()) {
+                    ByteBuffer large = ByteBuffer.allocate(size);
+                    large.put(this.buffer);
+                    while (large.hasRemaining()) {
+                        if (this.channel.read(large) < 0) {
+                            throw new EOFException();
+                        }
+                    }
+                    ((Buffer) large).flip();
+                    element = this.decode(large, size);
+                } else {
+                    fill(this.buffer, this.channel, size);
+                    element = this.decode(this.buffer, size);
+                }
+                this.remaining--;
+                return element;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private E decode(ByteBuffer buffer, int size) throws IOException {
+            int start = buffer.position();
+            E element = this.codec.decode(buffer, size);
+            if (buffer.position() - start != size) {
+                throw new IOException("codec read " + (buffer.position() - start) + " bytes, expected " + size);
+            }
+            return element;
+        }
+
+        private int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                fill(this.buffer, this.channel, 1);
+                byte b = this.buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("malformed element length");
+        }
+    }
+}
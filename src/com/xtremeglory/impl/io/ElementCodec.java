@@ -0,0 +1,97 @@
+package com.xtremeglory.impl.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 元素的二进制编码方式, 编码与解码都从缓冲区的当前位置开始, 并移动position.
+ * 变长编码的元素在文件中带有长度前缀, 定长编码则没有
+ *
+ * @param <E>
+ */
+public interface ElementCodec<E> {
+    /**
+     * @return 定长编码的字节数, 变长编码返回-1
+     */
+    default int width() {
+        return -1;
+    }
+
+    /**
+     * @return element编码后的字节数
+     */
+    int size(E element);
+
+    /**
+     * 写入恰好size(element)个字节
+     */
+    void encode(E element, ByteBuffer buffer);
+
+    /**
+     * @param size 元素编码的字节数
+     */
+    E decode(ByteBuffer buffer, int size);
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public int size(Integer element) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer element, ByteBuffer buffer) {
+            buffer.putInt(element);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int size) {
+            return buffer.getInt();
+        }
+    };
+
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public int size(Long element) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long element, ByteBuffer buffer) {
+            buffer.putLong(element);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int size) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * 无损的UTF-8编码, 单独的代理字符也能原样还原, 见Utf8; 计算长度时不产生临时对象
+     */
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        @Override
+        public int size(String element) {
+            return Utf8.size(element);
+        }
+
+        @Override
+        public void encode(String element, ByteBuffer buffer) {
+            Utf8.encode(element, buffer);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int size) {
+            return Utf8.decode(buffer, size);
+        }
+    };
+}
@@ -0,0 +1,116 @@
+package com.xtremeglory.impl.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 无损的UTF-8编码: 合法的字符串与标准UTF-8的结果完全相同; 单独的代理字符(没有配对的UTF-16代理项)
+ * 按其代码单元值编码为3个字节(与CESU-8相同), 而不是像String.getBytes那样替换为'?'.
+ * 因此任意String都可以原样还原, 不同的字符串编码后也一定不同.
+ * 编码结果按无符号字节比较时与码点顺序一致, 单独的代理字符视为与其值相同的码点
+ */
+public final class Utf8 {
+    private Utf8() {
+    }
+
+    /**
+     * @return value编码后的字节数, 不产生临时对象
+     */
+    public static int size(String value) {
+        int size = 0;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (isPair(value, i)) {
+                size += 4;
+                ++i;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    private static boolean isPair(String value, int i) {
+        return Character.isHighSurrogate(value.charAt(i)) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1));
+    }
+
+    /**
+     * 从buffer的当前位置写入恰好size(value)个字节
+     */
+    public static void encode(String value, ByteBuffer buffer) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (isPair(value, i)) {
+                int code_point = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (code_point >> 18)));
+                buffer.put((byte) (0x80 | ((code_point >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((code_point >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (code_point & 0x3F)));
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    public static byte[] encode(String value) {
+        byte[] bytes = new byte[size(value)];
+        encode(value, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * 从buffer的当前位置读取size个字节并还原为字符串
+     *
+     * @throws IllegalArgumentException 字节序列不是encode的输出
+     */
+    public static String decode(ByteBuffer buffer, int size) {
+        char[] chars = new char[size];
+        int length = 0;
+        int end = buffer.position() + size;
+        while (buffer.position() < end) {
+            int b = buffer.get() & 0xFF;
+            if (b < 0x80) {
+                chars[length++] = (char) b;
+            } else if (b < 0xC0) {
+                throw new IllegalArgumentException("malformed UTF-8 lead byte: " + b);
+            } else if (b < 0xE0) {
+                chars[length++] = (char) (((b & 0x1F) << 6) | continuation(buffer, end));
+            } else if (b < 0xF0) {
+                int high = continuation(buffer, end);
+                chars[length++] = (char) (((b & 0x0F) << 12) | (high << 6) | continuation(buffer, end));
+            } else {
+                int code_point = (b & 0x07) << 18;
+                code_point |= continuation(buffer, end) << 12;
+                code_point |= continuation(buffer, end) << 6;
+                code_point |= continuation(buffer, end);
+                if (code_point < Character.MIN_SUPPLEMENTARY_CODE_POINT || code_point > Character.MAX_CODE_POINT) {
+                    throw new IllegalArgumentException("malformed UTF-8 code point: " + code_point);
+                }
+                chars[length++] = Character.highSurrogate(code_point);
+                chars[length++] = Character.lowSurrogate(code_point);
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static int continuation(ByteBuffer buffer, int end) {
+        if (buffer.position() >= end) {
+            throw new IllegalArgumentException("truncated UTF-8 sequence");
+        }
+        int b = buffer.get() & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("malformed UTF-8 continuation byte: " + b);
+        }
+        return b & 0x3F;
+    }
+}
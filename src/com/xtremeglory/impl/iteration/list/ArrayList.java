@@ -0,0 +1,551 @@
+package com.xtremeglory.impl.iteration.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.RaodomAccessList;
+import com.xtremeglory.impl.SearchDirection;
+import com.xtremeglory.impl.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 基于数组的随机存储表, 容量不足时按两倍扩容, get/set为O(1), 插入删除使用System.arraycopy整体挪动.
+ * <p>
+ * 开启懒惰删除(lazy_remove)后, remove只把对应槽位标记为墓碑(TOMBSTONE), 不挪动后续元素;
+ * 在存在墓碑时, 逻辑下标需要从第一个墓碑处开始换算, 调用compact()会一次性回收所有空隙, 恢复O(1)的随机访问.
+ *
+ * @param <E>
+ */
+public class ArrayList<E> implements RaodomAccessList<E> {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final Object TOMBSTONE = new Object();
+
+    private Object[] elements;
+    // 表中有效元素个数
+    private int size;
+    // 已使用的槽位个数(包含墓碑), 不开启懒惰删除时used == size
+    private int used;
+    // 第一个墓碑所在的槽位, 不存在墓碑时first_gap == used
+    private int first_gap;
+    private final boolean lazy_remove;
+    // 结构修改(插入,删除,紧凑)的次数,用于迭代器的快速失败检查
+    private int mod_count;
+
+    public ArrayList() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    public ArrayList(int capacity) {
+        this(capacity, false);
+    }
+
+    public ArrayList(int capacity, boolean lazy_remove) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.size = 0;
+        this.used = 0;
+        this.first_gap = 0;
+        this.lazy_remove = lazy_remove;
+    }
+
+    public boolean isLazyRemove() {
+        return this.lazy_remove;
+    }
+
+    private boolean hasGap() {
+        return this.first_gap < this.used;
+    }
+
+    /**
+     * 把逻辑下标换算为槽位下标, 在第一个墓碑之前两者相同
+     *
+     * @param index 逻辑下标,调用前需要保证 0 <= index < size
+     * @return 槽位下标
+     */
+    private int physical(int index) {
+        if (index < this.first_gap) {
+            return index;
+        }
+        int live = this.first_gap;
+        for (int i = this.first_gap; i < this.used; ++i) {
+            if (this.elements[i] != TOMBSTONE) {
+                if (live == index) {
+                    return i;
+                }
+                ++live;
+            }
+        }
+        throw new ArrayIndexOutOfBoundsException(index);
+    }
+
+    /**
+     * 保证至少还有一个空闲槽位; 如果墓碑占了一半以上的槽位, 则优先紧凑而不是扩容
+     */
+    private void ensureSlot() {
+        if (this.used < this.elements.length) {
+            return;
+        }
+        if (this.used - this.size > this.used / 2) {
+            this.compact();
+        } else {
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.LIST_GROW);
+            }
+            int capacity = Math.max(this.elements.length * 2, DEFAULT_CAPACITY);
+            this.elements = Arrays.copyOf(this.elements, capacity);
+        }
+    }
+
+    /**
+     * 从槽位末尾向前清除连续的墓碑
+     */
+    private void trimTail() {
+        while (this.used > this.first_gap && this.elements[this.used - 1] == TOMBSTONE) {
+            this.elements[--this.used] = null;
+        }
+        if (this.first_gap > this.used) {
+            this.first_gap = this.used;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    @Override
+    public void insert(E element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        if (index == this.size) {
+            // 追加时直接放在槽位末尾,不需要紧凑
+            this.ensureSlot();
+            if (this.first_gap == this.used) {
+                ++this.first_gap;
+            }
+            this.elements[this.used++] = element;
+        } else {
+            if (this.hasGap()) {
+                this.compact();
+            }
+            this.ensureSlot();
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_SHIFT, this.used - index);
+            }
+            System.arraycopy(this.elements, index, this.elements, index + 1, this.used - index);
+            this.elements[index] = element;
+            this.first_gap = ++this.used;
+        }
+        ++this.size;
+        ++this.mod_count;
+    }
+
+    /**
+     * 删除槽位position处的元素
+     *
+     * @param position 槽位下标
+     * @return 被删除的元素
+     */
+    @SuppressWarnings("unchecked")
+    private E removeAt(int position) {
+        E removed = (E) this.elements[position];
+        if (this.lazy_remove) {
+            this.elements[position] = TOMBSTONE;
+            if (position < this.first_gap) {
+                this.first_gap = position;
+            }
+            this.trimTail();
+        } else {
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_SHIFT, this.used - position - 1);
+            }
+            System.arraycopy(this.elements, position + 1, this.elements, position, this.used - position - 1);
+            this.elements[--this.used] = null;
+            this.first_gap = this.used;
+        }
+        --this.size;
+        ++this.mod_count;
+        return removed;
+    }
+
+    @Override
+    public E remove(int index) {
+        this.checkIndex(index);
+        return this.removeAt(this.physical(index));
+    }
+
+    @Override
+    public E remove(E element, int index) {
+        return this.remove(element, index, SearchDirection.FROM_FRONT_TO_BACK);
+    }
+
+    @Override
+    public E remove(E element, int index, SearchDirection search_direction) {
+        this.checkIndex(index);
+        int position = this.search(element, this.physical(index), search_direction);
+        return position != -1 ? this.removeAt(position) : null;
+    }
+
+    /**
+     * 先把source复制为数组(因此source可以是当前表), 再一次性挪动插入位置之后的元素
+     */
+    @Override
+    public void insertAll(Iterable<? extends E> source, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Object[] inserted;
+        if (source instanceof List) {
+            inserted = ((List<?>) source).asList();
+        } else {
+            inserted = new Object[DEFAULT_CAPACITY];
+            int count = 0;
+            for (E element : source) {
+                if (count == inserted.length) {
+                    inserted = Arrays.copyOf(inserted, count * 2);
+                }
+                inserted[count++] = element;
+            }
+            inserted = Arrays.copyOf(inserted, count);
+        }
+        if (inserted.length == 0) {
+            return;
+        }
+        if (this.hasGap()) {
+            this.compact();
+        }
+        if (this.used + inserted.length > this.elements.length) {
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.LIST_GROW);
+            }
+            this.elements = Arrays.copyOf(this.elements, Math.max(this.elements.length * 2, this.used + inserted.length));
+        }
+        if (Metrics.ENABLED) {
+            Metrics.record(Metrics.LIST_SHIFT, this.used - index);
+        }
+        System.arraycopy(this.elements, index, this.elements, index + inserted.length, this.used - index);
+        System.arraycopy(inserted, 0, this.elements, index, inserted.length);
+        this.used += inserted.length;
+        this.first_gap = this.used;
+        this.size += inserted.length;
+        ++this.mod_count;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > this.size) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        if (from == to) {
+            return;
+        }
+        if (this.hasGap()) {
+            this.compact();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.record(Metrics.LIST_SHIFT, this.used - to);
+        }
+        System.arraycopy(this.elements, to, this.elements, from, this.used - to);
+        Arrays.fill(this.elements, this.used - (to - from), this.used, null);
+        this.used -= to - from;
+        this.first_gap = this.used;
+        this.size = this.used;
+        ++this.mod_count;
+    }
+
+    /**
+     * 先对所有元素求值并记录要删除的槽位, 谓词抛出异常时表保持不变; 再一次遍历把保留的元素前移, 同时回收墓碑
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super E> filter) {
+        BitSet marked = new BitSet(this.used);
+        for (int i = this.first_gap; i < this.used; ++i) {
+            Object element = this.elements[i];
+            if (element == TOMBSTONE) {
+                marked.set(i);
+            }
+        }
+        int removed = 0;
+        for (int i = 0; i < this.used; ++i) {
+            Object element = this.elements[i];
+            if (element != TOMBSTONE && filter.test((E) element)) {
+                marked.set(i);
+                ++removed;
+            }
+        }
+        int first = marked.nextSetBit(0);
+        if (first < 0) {
+            return 0;
+        }
+        int j = first;
+        for (int i = marked.nextClearBit(first); i < this.used; i = marked.nextClearBit(i + 1)) {
+            this.elements[j++] = this.elements[i];
+        }
+        Arrays.fill(this.elements, j, this.used, null);
+        this.used = j;
+        this.first_gap = j;
+        this.size = j;
+        ++this.mod_count;
+        return removed;
+    }
+
+    @Override
+    public void set(E element, int index) {
+        this.checkIndex(index);
+        this.elements[this.physical(index)] = element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        this.checkIndex(index);
+        return (E) this.elements[this.physical(index)];
+    }
+
+    /**
+     * 从槽位position开始按照搜索方向查找元素
+     *
+     * @return 元素所在的槽位下标, 不存在时返回-1
+     */
+    private int search(E element, int position, SearchDirection search_direction) {
+        if (search_direction == SearchDirection.FROM_FRONT_TO_BACK) {
+            for (int i = position; i < this.used; ++i) {
+                if (this.elements[i] != TOMBSTONE && Objects.equals(this.elements[i], element)) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = position; i >= 0; --i) {
+                if (this.elements[i] != TOMBSTONE && Objects.equals(this.elements[i], element)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 把槽位下标换算为逻辑下标
+     */
+    private int logical(int position) {
+        if (position < this.first_gap) {
+            return position;
+        }
+        int index = this.first_gap;
+        for (int i = this.first_gap; i < position; ++i) {
+            if (this.elements[i] != TOMBSTONE) {
+                ++index;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int indexOf(E element, int index) {
+        return this.indexOf(element, index, SearchDirection.FROM_FRONT_TO_BACK);
+    }
+
+    @Override
+    public int indexOf(E element, int index, SearchDirection search_direction) {
+        this.checkIndex(index);
+        int position = this.search(element, this.physical(index), search_direction);
+        return position != -1 ? this.logical(position) : -1;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return -1;
+    }
+
+    /**
+     * 一次遍历把所有有效元素前移, 回收懒惰删除留下的墓碑
+     *
+     * @return 总是返回true
+     */
+    @Override
+    public boolean compact() {
+        if (this.hasGap()) {
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.LIST_COMPACT);
+            }
+            int j = this.first_gap;
+            for (int i = this.first_gap; i < this.used; ++i) {
+                if (this.elements[i] != TOMBSTONE) {
+                    this.elements[j++] = this.elements[i];
+                }
+            }
+            Arrays.fill(this.elements, j, this.used, null);
+            this.used = j;
+            this.first_gap = j;
+            ++this.mod_count;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] asList() {
+        if (!this.hasGap()) {
+            return (E[]) Arrays.copyOf(this.elements, this.size);
+        }
+        Object[] array = new Object[this.size];
+        int j = 0;
+        for (int i = 0; i < this.used; ++i) {
+            if (this.elements[i] != TOMBSTONE) {
+                array[j++] = this.elements[i];
+            }
+        }
+        return (E[]) array;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ArrayListIterator();
+    }
+
+    /**
+     * 按槽位区间对半切分; 不存在墓碑时每一部分的大小是精确的, 否则只是上界
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ArrayListSpliterator(0, this.used, !this.hasGap(), this.mod_count);
+    }
+
+    private class ArrayListSpliterator implements Spliterator<E> {
+        // 负责的槽位区间[position, fence)
+        private int position;
+        private final int fence;
+        private final boolean exact;
+        private final int expected_mod_count;
+
+        ArrayListSpliterator(int position, int fence, boolean exact, int expected_mod_count) {
+            this.position = position;
+            this.fence = fence;
+            this.exact = exact;
+            this.expected_mod_count = expected_mod_count;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (this.position + this.fence) >>> 1;
+            if (middle <= this.position) {
+                return null;
+            }
+            ArrayListSpliterator prefix = new ArrayListSpliterator(this.position, middle, this.exact, this.expected_mod_count);
+            this.position = middle;
+            return prefix;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            while (this.position < this.fence) {
+                Object element = elements[this.position++];
+                if (element != TOMBSTONE) {
+                    action.accept((E) element);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            Object[] elements = ArrayList.this.elements;
+            for (int i = this.position; i < this.fence; ++i) {
+                if (elements[i] != TOMBSTONE) {
+                    action.accept((E) elements[i]);
+                }
+            }
+            this.position = this.fence;
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.position;
+        }
+
+        @Override
+        public int characteristics() {
+            return this.exact ? ORDERED | SIZED | SUBSIZED : ORDERED;
+        }
+    }
+
+    private class ArrayListIterator implements Iterator<E> {
+        // position是下一个待检查的槽位, last是上一次next()返回的槽位, 调用remove()后置为-1
+        private int position;
+        private int last;
+        private int expected_mod_count;
+
+        ArrayListIterator() {
+            this.position = 0;
+            this.last = -1;
+            this.expected_mod_count = mod_count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.position < used && elements[this.position] == TOMBSTONE) {
+                ++this.position;
+            }
+            return this.position < used;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.position++;
+            return (E) elements[this.last];
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == -1) {
+                throw new IllegalStateException();
+            }
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(this.last);
+            if (!lazy_remove) {
+                // 非懒惰删除时后续元素整体前移了一位
+                this.position = this.last;
+            }
+            this.last = -1;
+            this.expected_mod_count = mod_count;
+        }
+    }
+}
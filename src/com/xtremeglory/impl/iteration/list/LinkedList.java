@@ -0,0 +1,314 @@
+package com.xtremeglory.impl.iteration.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.metrics.Metrics;
+
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 迭代实现的单链表, 与recursion.list.LinkedList对外行为一致.
+ * 所有操作都通过循环完成, 不会因为表过长而导致栈溢出; 同时保存尾节点引用, 在表尾追加元素的复杂度为O(1).
+ *
+ * @param <E>
+ */
+public class LinkedList<E> implements List<E> {
+    static final class Node<E> {
+        E element;
+        Node<E> next;
+
+        Node(E element, Node<E> next) {
+            this.element = element;
+            this.next = next;
+        }
+
+        Node() {}
+    }
+
+    // head是哑节点, head.next才是第一个元素; 表为空时tail == head
+    private final Node<E> head;
+    private Node<E> tail;
+    private int size;
+    // 结构修改(插入,删除)的次数,用于迭代器的快速失败检查
+    private int mod_count;
+
+    public LinkedList() {
+        this.head = new Node<>();
+        this.tail = this.head;
+        this.size = 0;
+        this.mod_count = 0;
+    }
+
+    /**
+     * 返回index位置的前驱节点, index == 0时返回head
+     *
+     * @param index 目标位置,调用前需要保证 0 <= index <= size
+     * @return 前驱节点
+     */
+    private Node<E> previous(int index) {
+        if (index == this.size) {
+            return this.tail;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.record(Metrics.LIST_WALK, index);
+        }
+        Node<E> node = this.head;
+        for (int i = 0; i < index; ++i) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    /**
+     * 删除prev的后继节点, 并维护tail与size
+     *
+     * @param prev 被删除节点的前驱
+     * @return 被删除的元素
+     */
+    private E unlinkNext(Node<E> prev) {
+        Node<E> removed = prev.next;
+        prev.next = removed.next;
+        if (removed == this.tail) {
+            this.tail = prev;
+        }
+        --this.size;
+        ++this.mod_count;
+        return removed.element;
+    }
+
+    @Override
+    public void insert(E element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            Node<E> prev = this.previous(index);
+            prev.next = new Node<>(element, prev.next);
+            if (prev == this.tail) {
+                this.tail = prev.next;
+            }
+            ++this.size;
+            ++this.mod_count;
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            return this.unlinkNext(this.previous(index));
+        }
+    }
+
+    @Override
+    public E remove(E element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            Node<E> prev = this.previous(index);
+            while (prev.next != null) {
+                if (Objects.equals(prev.next.element, element)) {
+                    return this.unlinkNext(prev);
+                }
+                prev = prev.next;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 先把source复制成一条独立的链, 再定位一次整体接入; 因此source可以是当前表
+     */
+    @Override
+    public void insertAll(Iterable<? extends E> source, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Node<E> first = new Node<>();
+        Node<E> last = first;
+        int count = 0;
+        for (E element : source) {
+            last.next = new Node<>(element, null);
+            last = last.next;
+            ++count;
+        }
+        if (count == 0) {
+            return;
+        }
+        Node<E> prev = this.previous(index);
+        last.next = prev.next;
+        prev.next = first.next;
+        if (prev == this.tail) {
+            this.tail = last;
+        }
+        this.size += count;
+        ++this.mod_count;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > this.size) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        if (from == to) {
+            return;
+        }
+        Node<E> prev = this.previous(from);
+        Node<E> last = prev;
+        for (int i = from; i < to; ++i) {
+            last = last.next;
+        }
+        prev.next = last.next;
+        if (last == this.tail) {
+            this.tail = prev;
+        }
+        this.size -= to - from;
+        ++this.mod_count;
+    }
+
+    /**
+     * 先对所有元素求值并记录要删除的下标, 谓词抛出异常时表保持不变; 再一次遍历摘除被标记的节点
+     */
+    @Override
+    public int removeIf(Predicate<? super E> filter) {
+        BitSet marked = new BitSet(this.size);
+        int index = 0;
+        for (Node<E> node = this.head.next; node != null; node = node.next, ++index) {
+            if (filter.test(node.element)) {
+                marked.set(index);
+            }
+        }
+        int removed = marked.cardinality();
+        if (removed == 0) {
+            return 0;
+        }
+        Node<E> prev = this.head;
+        for (index = 0; prev.next != null; ++index) {
+            if (marked.get(index)) {
+                prev.next = prev.next.next;
+            } else {
+                prev = prev.next;
+            }
+        }
+        this.tail = prev;
+        this.size -= removed;
+        ++this.mod_count;
+        return removed;
+    }
+
+    @Override
+    public void set(E element, int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            this.previous(index).next.element = element;
+        }
+    }
+
+    @Override
+    public E get(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            return this.previous(index).next.element;
+        }
+    }
+
+    @Override
+    public int indexOf(E element, int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        } else {
+            Node<E> node = this.previous(index).next;
+            for (int i = index; node != null; ++i, node = node.next) {
+                if (Objects.equals(node.element, element)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return -1;
+    }
+
+    @Override
+    public boolean compact() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] asList() {
+        Object[] array = new Object[this.size];
+        int i = 0;
+        for (Node<E> node = this.head.next; node != null; node = node.next) {
+            array[i++] = node.element;
+        }
+        return (E[]) array;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new LinkedListIterator();
+    }
+
+    private class LinkedListIterator implements Iterator<E> {
+        // cursor指向上一次next()返回的节点, previous是cursor的前驱; 调用remove()后previous置空
+        private Node<E> cursor;
+        private Node<E> previous;
+        private int expected_mod_count;
+
+        LinkedListIterator() {
+            this.cursor = head;
+            this.previous = null;
+            this.expected_mod_count = mod_count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.cursor.next != null;
+        }
+
+        @Override
+        public E next() {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.cursor.next == null) {
+                throw new NoSuchElementException();
+            }
+            this.previous = this.cursor;
+            this.cursor = this.cursor.next;
+            return this.cursor.element;
+        }
+
+        @Override
+        public void remove() {
+            if (this.previous == null) {
+                throw new IllegalStateException();
+            }
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            unlinkNext(this.previous);
+            this.cursor = this.previous;
+            this.previous = null;
+            this.expected_mod_count = mod_count;
+        }
+    }
+}
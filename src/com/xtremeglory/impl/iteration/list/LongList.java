@@ -0,0 +1,147 @@
+package com.xtremeglory.impl.iteration.list;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * ArrayList对long元素的特化版本, 元素直接保存在long[]中, 不产生Long装箱对象.
+ * 为了避免remove(int index)与按元素删除产生歧义, 按元素删除的方法命名为removeElement
+ */
+public class LongList {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private long[] elements;
+    private int size;
+
+    public LongList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        this.elements = new long[capacity];
+        this.size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void ensureSlot() {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, Math.max(this.elements.length * 2, DEFAULT_CAPACITY));
+        }
+    }
+
+    public void insert(long element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        this.ensureSlot();
+        System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+        this.elements[index] = element;
+        ++this.size;
+    }
+
+    /**
+     * 在表尾追加元素
+     *
+     * @param element 待插入元素
+     */
+    public void add(long element) {
+        this.ensureSlot();
+        this.elements[this.size++] = element;
+    }
+
+    public long remove(int index) {
+        this.checkIndex(index);
+        long removed = this.elements[index];
+        System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+        --this.size;
+        return removed;
+    }
+
+    /**
+     * 从开始索引位置(index),向后找到第一个匹配的元素并删除
+     *
+     * @param element 要删除的元素
+     * @param index   搜索的起始位置(包含该元素)
+     * @return 是否删除了元素
+     */
+    public boolean removeElement(long element, int index) {
+        int position = this.indexOf(element, index);
+        if (position == -1) {
+            return false;
+        }
+        this.remove(position);
+        return true;
+    }
+
+    public boolean removeElement(long element) {
+        return this.size != 0 && this.removeElement(element, 0);
+    }
+
+    public void set(long element, int index) {
+        this.checkIndex(index);
+        this.elements[index] = element;
+    }
+
+    public long get(int index) {
+        this.checkIndex(index);
+        return this.elements[index];
+    }
+
+    public int indexOf(long element, int index) {
+        this.checkIndex(index);
+        for (int i = index; i < this.size; ++i) {
+            if (this.elements[i] == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(long element) {
+        return this.size != 0 ? this.indexOf(element, 0) : -1;
+    }
+
+    public boolean contains(long element) {
+        return this.indexOf(element) != -1;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(this.elements, this.size);
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (this.position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elements[this.position++];
+            }
+        };
+    }
+}
@@ -0,0 +1,559 @@
+package com.xtremeglory.impl.iteration.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * 展开链表: 每个节点(块)用数组保存一段连续的元素, 块之间仍然通过next指针串联.
+ * 按下标定位时每次跳过一整块, 块内的查找与挪动都在数组上完成; 元素不需要单独的节点对象, 只占用数组中的一个槽位.
+ * <p>
+ * 块满时从中间分裂, 删除后不足半满时与后继块合并或从后继块借入元素, 因此除最后一块外每块至少半满;
+ * 在表尾追加时最后一块满了就直接开辟新块, 顺序追加得到的块都是满的.
+ *
+ * @param <E>
+ */
+public class UnrolledLinkedList<E> implements List<E> {
+    static final class Chunk<E> {
+        final Object[] elements;
+        int size;
+        Chunk<E> next;
+
+        Chunk(int capacity) {
+            this.elements = new Object[capacity];
+            this.size = 0;
+        }
+
+        /**
+         * 把source的前count个元素追加到当前块的末尾, source剩余的元素前移
+         */
+        void moveFrom(Chunk<E> source, int count) {
+            System.arraycopy(source.elements, 0, this.elements, this.size, count);
+            System.arraycopy(source.elements, count, source.elements, 0, source.size - count);
+            Arrays.fill(source.elements, source.size - count, source.size, null);
+            this.size += count;
+            source.size -= count;
+        }
+
+        /**
+         * 把[from, size)中的元素移到空块right中
+         */
+        void moveTo(Chunk<E> right, int from) {
+            System.arraycopy(this.elements, from, right.elements, 0, this.size - from);
+            Arrays.fill(this.elements, from, this.size, null);
+            right.size = this.size - from;
+            this.size = from;
+        }
+
+        /**
+         * 从from开始在块内查找element; 以element作为equals的接收者, 整段扫描中的调用点只有一种类型
+         */
+        int indexOf(Object element, int from) {
+            Object[] elements = this.elements;
+            if (element == null) {
+                for (int i = from; i < this.size; ++i) {
+                    if (elements[i] == null) {
+                        return i;
+                    }
+                }
+            } else {
+                for (int i = from; i < this.size; ++i) {
+                    if (element.equals(elements[i])) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 删除[from, to)中的元素, 后面的元素前移
+         */
+        void removeRange(int from, int to) {
+            System.arraycopy(this.elements, to, this.elements, from, this.size - to);
+            Arrays.fill(this.elements, this.size - (to - from), this.size, null);
+            this.size -= to - from;
+        }
+    }
+
+    private static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    // head是不保存元素的哑块, head.next才是第一块; 除head外的块都不为空, 表为空时tail == head
+    private final Chunk<E> head;
+    private Chunk<E> tail;
+    private final int chunk_capacity;
+    private int size;
+    // previous()的第二个返回值: 目标元素在块中的偏移
+    private int offset;
+    // 结构修改(插入,删除,紧凑)的次数,用于迭代器的快速失败检查
+    private int mod_count;
+
+    public UnrolledLinkedList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * @param chunk_capacity 每块最多保存的元素个数, 至少为2
+     */
+    public UnrolledLinkedList(int chunk_capacity) {
+        if (chunk_capacity < 2) {
+            throw new IllegalArgumentException("chunk_capacity: " + chunk_capacity);
+        }
+        this.chunk_capacity = chunk_capacity;
+        this.head = new Chunk<>(0);
+        this.tail = this.head;
+        this.size = 0;
+        this.mod_count = 0;
+    }
+
+    public int getChunkCapacity() {
+        return this.chunk_capacity;
+    }
+
+    /**
+     * 返回index所在块的前驱块, 并把index在块中的偏移记入this.offset
+     *
+     * @param index 目标位置,调用前需要保证 0 <= index < size
+     * @return 前驱块, index位于第一块时返回head
+     */
+    private Chunk<E> previous(int index) {
+        Chunk<E> prev = this.head;
+        int chunks = 0;
+        while (index >= prev.next.size) {
+            index -= prev.next.size;
+            prev = prev.next;
+            ++chunks;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.record(Metrics.LIST_WALK, chunks);
+        }
+        this.offset = index;
+        return prev;
+    }
+
+    /**
+     * 在chunk之后接入一个新的空块
+     */
+    private Chunk<E> linkAfter(Chunk<E> chunk) {
+        Chunk<E> created = new Chunk<>(this.chunk_capacity);
+        created.next = chunk.next;
+        chunk.next = created;
+        if (chunk == this.tail) {
+            this.tail = created;
+        }
+        return created;
+    }
+
+    private void unlinkNext(Chunk<E> prev) {
+        Chunk<E> removed = prev.next;
+        prev.next = removed.next;
+        if (removed == this.tail) {
+            this.tail = prev;
+        }
+    }
+
+    /**
+     * 删除后chunk可能不足半满: 放得下时把后继整块并入, 否则从后继借入元素使两块大致相等;
+     * chunk是最后一块时, 为空则移除, 放得下时并入前驱
+     *
+     * @param prev  chunk的前驱块
+     * @param chunk 刚刚删除过元素的块
+     */
+    private void rebalance(Chunk<E> prev, Chunk<E> chunk) {
+        if (chunk.size != 0 && chunk.size >= this.chunk_capacity / 2) {
+            return;
+        }
+        Chunk<E> next = chunk.next;
+        if (next == null) {
+            if (chunk.size == 0) {
+                this.unlinkNext(prev);
+            } else if (prev != this.head && prev.size + chunk.size <= this.chunk_capacity) {
+                prev.moveFrom(chunk, chunk.size);
+                this.unlinkNext(prev);
+            }
+        } else if (chunk.size + next.size <= this.chunk_capacity) {
+            chunk.moveFrom(next, next.size);
+            this.unlinkNext(chunk);
+        } else {
+            chunk.moveFrom(next, (next.size - chunk.size) / 2);
+        }
+    }
+
+    @Override
+    public void insert(E element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Chunk<E> chunk;
+        int offset;
+        if (index == this.size) {
+            chunk = this.tail == this.head || this.tail.size == this.chunk_capacity ? this.linkAfter(this.tail) : this.tail;
+            offset = chunk.size;
+        } else {
+            chunk = this.previous(index).next;
+            offset = this.offset;
+            if (chunk.size == this.chunk_capacity) {
+                int half = chunk.size / 2;
+                Chunk<E> right = this.linkAfter(chunk);
+                chunk.moveTo(right, half);
+                if (offset > half) {
+                    chunk = right;
+                    offset -= half;
+                }
+            }
+            System.arraycopy(chunk.elements, offset, chunk.elements, offset + 1, chunk.size - offset);
+        }
+        chunk.elements[offset] = element;
+        ++chunk.size;
+        ++this.size;
+        ++this.mod_count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Chunk<E> prev = this.previous(index);
+        Chunk<E> chunk = prev.next;
+        E removed = (E) chunk.elements[this.offset];
+        chunk.removeRange(this.offset, this.offset + 1);
+        this.rebalance(prev, chunk);
+        --this.size;
+        ++this.mod_count;
+        return removed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(E element, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        if (index == this.size) {
+            return null;
+        }
+        Chunk<E> prev = this.previous(index);
+        for (int i = this.offset; prev.next != null; prev = prev.next, i = 0) {
+            Chunk<E> chunk = prev.next;
+            int found = chunk.indexOf(element, i);
+            if (found != -1) {
+                E removed = (E) chunk.elements[found];
+                chunk.removeRange(found, found + 1);
+                this.rebalance(prev, chunk);
+                --this.size;
+                ++this.mod_count;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 先把source复制到数组中, 因此source可以是当前表; 再把插入位置所在块的后半部分接在新元素之后,
+     * 依次填满当前块的剩余槽位与若干新块, 只有最后一个新块可能不满
+     */
+    @Override
+    public void insertAll(Iterable<? extends E> source, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Object[] inserted = new Object[16];
+        int count = 0;
+        for (E element : source) {
+            if (count == inserted.length) {
+                inserted = Arrays.copyOf(inserted, count * 2);
+            }
+            inserted[count++] = element;
+        }
+        if (count == 0) {
+            return;
+        }
+        int added = count;
+        Chunk<E> chunk;
+        if (index == this.size) {
+            chunk = this.tail;
+        } else {
+            chunk = this.previous(index).next;
+            int offset = this.offset;
+            int rest = chunk.size - offset;
+            if (count + rest > inserted.length) {
+                inserted = Arrays.copyOf(inserted, count + rest);
+            }
+            System.arraycopy(chunk.elements, offset, inserted, count, rest);
+            Arrays.fill(chunk.elements, offset, chunk.size, null);
+            chunk.size = offset;
+            count += rest;
+        }
+        Chunk<E> next = chunk.next;
+        for (int i = 0; i < count; ) {
+            if (chunk.size == chunk.elements.length) {
+                chunk = this.linkAfter(chunk);
+            }
+            int moved = Math.min(count - i, chunk.elements.length - chunk.size);
+            System.arraycopy(inserted, i, chunk.elements, chunk.size, moved);
+            chunk.size += moved;
+            i += moved;
+        }
+        if (next != null && chunk.size + next.size <= this.chunk_capacity) {
+            chunk.moveFrom(next, next.size);
+            this.unlinkNext(chunk);
+        }
+        this.size += added;
+        ++this.mod_count;
+    }
+
+    /**
+     * 首尾两块只删除区间内的部分, 中间的块整块摘除, 最后对区间两侧剩下的块做rebalance
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > this.size) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        if (from == to) {
+            return;
+        }
+        Chunk<E> prev = this.previous(from);
+        Chunk<E> chunk = prev.next;
+        int count = to - from;
+        int removed = Math.min(count, chunk.size - this.offset);
+        chunk.removeRange(this.offset, this.offset + removed);
+        while (removed < count) {
+            Chunk<E> next = chunk.next;
+            if (count - removed >= next.size) {
+                removed += next.size;
+                this.unlinkNext(chunk);
+            } else {
+                next.removeRange(0, count - removed);
+                removed = count;
+            }
+        }
+        // 首块与其后继都可能不足半满
+        this.rebalance(prev, chunk);
+        if (prev.next == chunk && chunk.next != null) {
+            this.rebalance(chunk, chunk.next);
+        }
+        this.size -= count;
+        ++this.mod_count;
+    }
+
+    /**
+     * 先对所有元素求值并记录要删除的下标, 谓词抛出异常时表保持不变;
+     * 再从第一个被删除的元素处开始, 把保留的元素依次紧凑地写回, 写完后多余的块整体丢弃
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super E> filter) {
+        BitSet marked = new BitSet(this.size);
+        int index = 0;
+        for (Chunk<E> chunk = this.head.next; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.size; ++i, ++index) {
+                if (filter.test((E) chunk.elements[i])) {
+                    marked.set(index);
+                }
+            }
+        }
+        int removed = marked.cardinality();
+        if (removed == 0) {
+            return 0;
+        }
+        int first = marked.nextSetBit(0);
+        Chunk<E> write_prev = this.previous(first);
+        Chunk<E> write = write_prev.next;
+        int w = this.offset;
+        // start是正在读取的块中第一个元素的下标; 写入的位置总在读取的位置之前, 写入只会改写已经读过的槽位
+        int start = first - w;
+        int i = w;
+        for (Chunk<E> chunk = write; chunk != null; chunk = chunk.next) {
+            int size = chunk.size;
+            for (; i < size; ++i) {
+                if (!marked.get(start + i)) {
+                    if (w == write.elements.length) {
+                        write.size = w;
+                        write_prev = write;
+                        write = write.next;
+                        w = 0;
+                    }
+                    write.elements[w++] = chunk.elements[i];
+                }
+            }
+            start += size;
+            i = 0;
+        }
+        Arrays.fill(write.elements, w, write.elements.length, null);
+        write.size = w;
+        write.next = null;
+        this.tail = write;
+        if (w == 0) {
+            this.unlinkNext(write_prev);
+        }
+        this.size -= removed;
+        ++this.mod_count;
+        return removed;
+    }
+
+    @Override
+    public void set(E element, int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        this.previous(index).next.elements[this.offset] = element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return (E) this.previous(index).next.elements[this.offset];
+    }
+
+    @Override
+    public int indexOf(E element, int index) {
+        if (index >= this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Chunk<E> chunk = this.previous(index).next;
+        // start是chunk第一个元素的下标
+        int start = index - this.offset;
+        for (int i = this.offset; chunk != null; start += chunk.size, chunk = chunk.next, i = 0) {
+            int found = chunk.indexOf(element, i);
+            if (found != -1) {
+                return start + found;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return -1;
+    }
+
+    /**
+     * 把所有元素重新排列到尽量少的块中, 除最后一块外每块都是满的
+     */
+    @Override
+    public boolean compact() {
+        Chunk<E> write = this.head.next;
+        if (write == null) {
+            return true;
+        }
+        int w = write.size;
+        for (Chunk<E> chunk = write.next; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.size; ++i) {
+                if (w == write.elements.length) {
+                    write.size = w;
+                    write = write.next;
+                    w = 0;
+                }
+                write.elements[w++] = chunk.elements[i];
+            }
+        }
+        if (write.next != null || w != write.size) {
+            Arrays.fill(write.elements, w, write.elements.length, null);
+            write.size = w;
+            write.next = null;
+            this.tail = write;
+            ++this.mod_count;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] asList() {
+        Object[] array = new Object[this.size];
+        int i = 0;
+        for (Chunk<E> chunk = this.head.next; chunk != null; chunk = chunk.next) {
+            System.arraycopy(chunk.elements, 0, array, i, chunk.size);
+            i += chunk.size;
+        }
+        return (E[]) array;
+    }
+
+    /**
+     * 迭代器在块内按数组下标前进; 通过迭代器删除时只在块内挪动元素, 块变空时才摘除, 不做合并
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new UnrolledLinkedListIterator();
+    }
+
+    private class UnrolledLinkedListIterator implements Iterator<E> {
+        // chunk是下一个元素所在的块(或其前驱), cursor是下一个元素在块中的下标; previous是chunk的前驱
+        private Chunk<E> chunk;
+        private Chunk<E> previous;
+        private int cursor;
+        private boolean removable;
+        private int expected_mod_count;
+
+        UnrolledLinkedListIterator() {
+            this.chunk = head;
+            this.previous = null;
+            this.cursor = 0;
+            this.removable = false;
+            this.expected_mod_count = mod_count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.cursor < this.chunk.size || this.chunk.next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.cursor == this.chunk.size) {
+                if (this.chunk.next == null) {
+                    throw new NoSuchElementException();
+                }
+                this.previous = this.chunk;
+                this.chunk = this.chunk.next;
+                this.cursor = 0;
+            }
+            this.removable = true;
+            return (E) this.chunk.elements[this.cursor++];
+        }
+
+        @Override
+        public void remove() {
+            if (!this.removable) {
+                throw new IllegalStateException();
+            }
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            this.chunk.removeRange(this.cursor - 1, this.cursor);
+            --this.cursor;
+            if (this.chunk.size == 0) {
+                unlinkNext(this.previous);
+                this.chunk = this.previous;
+                this.cursor = this.chunk.size;
+            }
+            this.removable = false;
+            --size;
+            this.expected_mod_count = ++mod_count;
+        }
+    }
+}
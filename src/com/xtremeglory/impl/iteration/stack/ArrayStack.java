@@ -0,0 +1,68 @@
+package com.xtremeglory.impl.iteration.stack;
+
+import com.xtremeglory.impl.AbstractStack;
+
+import java.util.Arrays;
+
+/**
+ * 基于数组的栈, 栈顶在数组末尾, 压栈与出栈都是O(1)且不产生节点对象.
+ * 出栈后的位置被置为null, 避免数组继续持有元素的引用
+ *
+ * @param <E>
+ */
+public class ArrayStack<E> extends AbstractStack<E> {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private Object[] elements;
+    private int size;
+
+    public ArrayStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayStack(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.size = 0;
+    }
+
+    @Override
+    public void push(E element) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, Math.max(this.elements.length * 2, DEFAULT_CAPACITY));
+        }
+        this.elements[this.size++] = element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        if (this.size == 0) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        E element = (E) this.elements[--this.size];
+        this.elements[this.size] = null;
+        return element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E top() {
+        if (this.size == 0) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        return (E) this.elements[this.size - 1];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,54 @@
+package com.xtremeglory.impl.iteration.stack;
+
+import java.util.Arrays;
+
+/**
+ * ArrayStack对int元素的特化版本, 元素直接保存在int[]中, 不产生Integer装箱对象
+ */
+public class IntStack {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private int[] elements;
+    private int size;
+
+    public IntStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntStack(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        this.elements = new int[capacity];
+        this.size = 0;
+    }
+
+    public void push(int element) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, Math.max(this.elements.length * 2, DEFAULT_CAPACITY));
+        }
+        this.elements[this.size++] = element;
+    }
+
+    public int pop() {
+        if (this.size == 0) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        return this.elements[--this.size];
+    }
+
+    public int top() {
+        if (this.size == 0) {
+            throw new ArrayIndexOutOfBoundsException(0);
+        }
+        return this.elements[this.size - 1];
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
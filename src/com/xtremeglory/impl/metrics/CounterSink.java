@@ -0,0 +1,121 @@
+package com.xtremeglory.impl.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 在内存中聚合的MetricsSink: 计数器使用LongAdder, 直方图按2的幂分桶(第k个桶统计[2^(k-1), 2^k)中的值, 第0个桶统计0).
+ * 多线程同时写入时不会互相争用同一个缓存行. export()输出文本格式, 便于被监控系统抓取
+ */
+public class CounterSink implements MetricsSink {
+    public static final class Histogram {
+        private final LongAdder[] buckets;
+        private final LongAdder count;
+        private final LongAdder sum;
+
+        Histogram() {
+            this.buckets = new LongAdder[Long.SIZE + 1];
+            for (int i = 0; i < this.buckets.length; ++i) {
+                this.buckets[i] = new LongAdder();
+            }
+            this.count = new LongAdder();
+            this.sum = new LongAdder();
+        }
+
+        void record(long value) {
+            this.buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+            this.count.increment();
+            this.sum.add(value);
+        }
+
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        public long getSum() {
+            return this.sum.sum();
+        }
+
+        public double mean() {
+            long count = this.getCount();
+            return count == 0 ? 0 : (double) this.getSum() / count;
+        }
+
+        /**
+         * @param bucket 桶的下标
+         * @return 落在[2^(bucket-1), 2^bucket)中的观测值个数
+         */
+        public long getBucket(int bucket) {
+            return this.buckets[bucket].sum();
+        }
+    }
+
+    private final ConcurrentHashMap<String, LongAdder> counters;
+    private final ConcurrentHashMap<String, Histogram> histograms;
+
+    public CounterSink() {
+        this.counters = new ConcurrentHashMap<>();
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void add(String name, long delta) {
+        this.counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    @Override
+    public void record(String name, long value) {
+        this.histograms.computeIfAbsent(name, key -> new Histogram()).record(value);
+    }
+
+    public long getCounter(String name) {
+        LongAdder counter = this.counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return 指标不存在时返回null
+     */
+    public Histogram getHistogram(String name) {
+        return this.histograms.get(name);
+    }
+
+    public void reset() {
+        this.counters.clear();
+        this.histograms.clear();
+    }
+
+    /**
+     * 按指标名排序输出, 每行一个值:
+     * <pre>
+     * btree.split 12
+     * list.walk_count 100
+     * list.walk_sum 4950
+     * list.walk_bucket{le="128"} 36
+     * </pre>
+     * 直方图的桶是累积的, le为桶的上界(不包含)
+     */
+    public String export() {
+        StringBuilder builder = new StringBuilder();
+        Map<String, LongAdder> counters = new TreeMap<>(this.counters);
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            builder.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+        Map<String, Histogram> histograms = new TreeMap<>(this.histograms);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String name = entry.getKey();
+            Histogram histogram = entry.getValue();
+            builder.append(name).append("_count ").append(histogram.getCount()).append('\n');
+            builder.append(name).append("_sum ").append(histogram.getSum()).append('\n');
+            long cumulative = 0;
+            for (int i = 0; i < histogram.buckets.length && cumulative < histogram.getCount(); ++i) {
+                cumulative += histogram.getBucket(i);
+                String bound = i < Long.SIZE - 1 ? Long.toString(1L << i) : "+Inf";
+                builder.append(name).append("_bucket{le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
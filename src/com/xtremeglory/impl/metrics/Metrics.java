@@ -0,0 +1,71 @@
+package com.xtremeglory.impl.metrics;
+
+/**
+ * 数据结构内部的结构化指标. 通过JVM参数 -Dxtremeglory.metrics=true 开启, 默认关闭.
+ * <p>
+ * ENABLED是static final常量, 埋点统一写成 if (Metrics.ENABLED) { ... } 的形式,
+ * 关闭时JIT会把整个分支连同只为它计算的局部变量一起消除, 因此没有任何运行时开销.
+ * 开启后事件被发送到当前的MetricsSink, 默认是内存中的CounterSink, 可以用setSink替换为其他导出方式.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("xtremeglory.metrics");
+
+    // BTree
+    /**
+     * 查找(find)次数
+     */
+    public static final String BTREE_FIND = "btree.find";
+    /**
+     * 节点内查找时compareTo的调用次数, 除以BTREE_FIND即为每次查找的平均比较次数
+     */
+    public static final String BTREE_COMPARE = "btree.compare";
+    public static final String BTREE_SPLIT = "btree.split";
+    /**
+     * 删除后向左右兄弟借用元素的次数
+     */
+    public static final String BTREE_BORROW = "btree.borrow";
+    /**
+     * 删除后与兄弟节点合并的次数
+     */
+    public static final String BTREE_MERGE = "btree.merge";
+
+    // List
+    /**
+     * 定位下标时沿链表经过的节点数(直方图)
+     */
+    public static final String LIST_WALK = "list.walk";
+    /**
+     * 插入删除时整体挪动的元素个数(直方图)
+     */
+    public static final String LIST_SHIFT = "list.shift";
+    public static final String LIST_GROW = "list.grow";
+    public static final String LIST_COMPACT = "list.compact";
+
+    private static volatile MetricsSink sink = new CounterSink();
+
+    private Metrics() {
+    }
+
+    public static MetricsSink getSink() {
+        return sink;
+    }
+
+    public static void setSink(MetricsSink sink) {
+        if (sink == null) {
+            throw new NullPointerException();
+        }
+        Metrics.sink = sink;
+    }
+
+    public static void increment(String name) {
+        sink.add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        sink.add(name, delta);
+    }
+
+    public static void record(String name, long value) {
+        sink.record(name, value);
+    }
+}
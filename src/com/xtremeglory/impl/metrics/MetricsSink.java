@@ -0,0 +1,23 @@
+package com.xtremeglory.impl.metrics;
+
+/**
+ * 指标的接收端. 数据结构只负责在关键路径上报告事件, 如何聚合与导出(内存计数, 日志, JFR事件, 监控系统)由实现决定.
+ * 实现需要是线程安全的, 并且尽量不在调用线程上做耗时的工作
+ */
+public interface MetricsSink {
+    /**
+     * 计数器增加delta
+     *
+     * @param name  指标名
+     * @param delta 增量
+     */
+    void add(String name, long delta);
+
+    /**
+     * 向直方图中记录一个观测值
+     *
+     * @param name  指标名
+     * @param value 观测值, 不小于0
+     */
+    void record(String name, long value);
+}
@@ -0,0 +1,84 @@
+package com.xtremeglory.impl.metrics;
+
+import java.util.Arrays;
+
+/**
+ * 树结构的快照: 高度, 节点数, 元素数, 节点填充分布与内存占用估计
+ */
+public class TreeStats {
+    private final int height;
+    private final int node_count;
+    private final int leaf_count;
+    private final long element_count;
+    // fill_distribution[k]为恰好含有k个元素的节点个数
+    private final long[] fill_distribution;
+    private final int max_node_size;
+    private final long bytes;
+
+    public TreeStats(int height, int node_count, int leaf_count, long element_count, long[] fill_distribution, int max_node_size, long bytes) {
+        this.height = height;
+        this.node_count = node_count;
+        this.leaf_count = leaf_count;
+        this.element_count = element_count;
+        this.fill_distribution = fill_distribution.clone();
+        this.max_node_size = max_node_size;
+        this.bytes = bytes;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getNodeCount() {
+        return this.node_count;
+    }
+
+    public int getLeafCount() {
+        return this.leaf_count;
+    }
+
+    public long getElementCount() {
+        return this.element_count;
+    }
+
+    /**
+     * @return 下标为节点元素个数, 值为节点个数
+     */
+    public long[] getFillDistribution() {
+        return this.fill_distribution.clone();
+    }
+
+    /**
+     * @return 平均每个节点的元素个数与节点容量之比
+     */
+    public double fillFactor() {
+        return this.node_count == 0 ? 0 : (double) this.element_count / ((long) this.node_count * this.max_node_size);
+    }
+
+    /**
+     * @return 节点本身占用的字节数估计, 不包括元素对象
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * @return 平均每个元素占用的节点字节数
+     */
+    public double bytesPerElement() {
+        return this.element_count == 0 ? 0 : (double) this.bytes / this.element_count;
+    }
+
+    @Override
+    public String toString() {
+        return "TreeStats{height=" + this.height +
+                ", node_count=" + this.node_count +
+                ", leaf_count=" + this.leaf_count +
+                ", element_count=" + this.element_count +
+                ", fill_factor=" + String.format("%.3f", this.fillFactor()) +
+                ", bytes=" + this.bytes +
+                ", bytes_per_element=" + String.format("%.2f", this.bytesPerElement()) +
+                ", fill_distribution=" + Arrays.toString(this.fill_distribution) +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.xtremeglory.impl.paged;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长关键字的编码方式, 关键字在页面中占用width()个字节
+ *
+ * @param <E>
+ */
+public interface KeyCodec<E extends Comparable<E>> {
+    int width();
+
+    void encode(E key, ByteBuffer buffer, int offset);
+
+    E decode(ByteBuffer buffer, int offset);
+
+    /**
+     * 比较key与页面中offset处的关键字, 默认先解码再比较; 基本类型的编码可以直接比较而不产生装箱对象
+     */
+    default int compare(E key, ByteBuffer buffer, int offset) {
+        return key.compareTo(this.decode(buffer, offset));
+    }
+
+    KeyCodec<Integer> INTEGER = new KeyCodec<Integer>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer key, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, key);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+
+        @Override
+        public int compare(Integer key, ByteBuffer buffer, int offset) {
+            return Integer.compare(key, buffer.getInt(offset));
+        }
+    };
+
+    KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long key, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, key);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+
+        @Override
+        public int compare(Long key, ByteBuffer buffer, int offset) {
+            return Long.compare(key, buffer.getLong(offset));
+        }
+    };
+}
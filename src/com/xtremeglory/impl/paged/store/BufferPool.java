@@ -0,0 +1,246 @@
+package com.xtremeglory.impl.paged.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 位于文件与树之间的页面缓存, 实现PageStore, 因此可以直接替换MappedPageStore.
+ * <p>
+ * 缓存由固定数量的帧(frame)组成, 帧数 = 内存预算 / 页面大小. 未命中时使用时钟(clock)算法选择被淘汰的帧:
+ * 指针循环扫描各帧, 跳过被pin的帧, 清除访问位, 淘汰第一个访问位已经为0的帧; 被修改过的帧在淘汰时写回文件.
+ * 经常访问的上层节点的访问位总是被置位, 因此会留在缓存中, 冷的叶子节点被淘汰.
+ * 同时被pin的页面数不能超过帧数, 对于PagedBTree至少需要 树高 + 4 个帧.
+ */
+public class BufferPool implements PageStore {
+    private final FileChannel channel;
+    private final int page_size;
+    private final ByteBuffer[] frames;
+    // 每个帧当前保存的页号, -1表示空闲
+    private final int[] frame_pages;
+    private final int[] pin_counts;
+    private final boolean[] referenced;
+    private final boolean[] dirty;
+    // 页号 -> 帧号
+    private final HashMap<Integer, Integer> page_table;
+    private int hand;
+    private int capacity;
+
+    private long hit_count;
+    private long miss_count;
+    private long eviction_count;
+    private long write_back_count;
+
+    /**
+     * 打开或创建文件
+     *
+     * @param file          文件路径
+     * @param page_size     页面大小(字节)
+     * @param memory_budget 缓存可以使用的字节数
+     */
+    public BufferPool(Path file, int page_size, long memory_budget) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), page_size, memory_budget);
+    }
+
+    public BufferPool(FileChannel channel, int page_size, long memory_budget) throws IOException {
+        if (page_size <= 0) {
+            throw new IllegalArgumentException("page_size: " + page_size);
+        }
+        long frame_count = memory_budget / page_size;
+        if (frame_count < 2 || frame_count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("memory_budget: " + memory_budget);
+        }
+        this.channel = channel;
+        this.page_size = page_size;
+        this.frames = new ByteBuffer[(int) frame_count];
+        ByteBuffer memory = ByteBuffer.allocateDirect(this.frames.length * page_size);
+        // 位置与界限通过Buffer设置, 避免在新版JDK上编译时链接到Java 8中不存在的协变重载
+        for (int i = 0; i < this.frames.length; ++i) {
+            ((Buffer) memory).limit((i + 1) * page_size);
+            ((Buffer) memory).position(i * page_size);
+            this.frames[i] = memory.slice();
+        }
+        this.frame_pages = new int[this.frames.length];
+        Arrays.fill(this.frame_pages, -1);
+        this.pin_counts = new int[this.frames.length];
+        this.referenced = new boolean[this.frames.length];
+        this.dirty = new boolean[this.frames.length];
+        this.page_table = new HashMap<>(this.frames.length * 2);
+        this.hand = 0;
+        this.capacity = (int) (channel.size() / page_size);
+    }
+
+    @Override
+    public int pageSize() {
+        return this.page_size;
+    }
+
+    public int getFrameCount() {
+        return this.frames.length;
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * 只记录新的容量, 文件在页面被写回时才真正增长; 读取文件末尾之后的页面得到的内容为0
+     */
+    @Override
+    public void grow(int pages) {
+        this.capacity = Math.max(this.capacity, pages);
+    }
+
+    @Override
+    public ByteBuffer pin(int page) {
+        if (page >= this.capacity || page < 0) {
+            throw new ArrayIndexOutOfBoundsException(page);
+        }
+        Integer cached = this.page_table.get(page);
+        int frame;
+        if (cached != null) {
+            this.hit_count++;
+            frame = cached;
+        } else {
+            this.miss_count++;
+            frame = this.victim();
+            if (this.frame_pages[frame] != -1) {
+                this.eviction_count++;
+                if (this.dirty[frame]) {
+                    this.write(frame);
+                }
+                this.page_table.remove(this.frame_pages[frame]);
+            }
+            this.read(page, frame);
+            this.frame_pages[frame] = page;
+            this.dirty[frame] = false;
+            this.page_table.put(page, frame);
+        }
+        this.pin_counts[frame]++;
+        this.referenced[frame] = true;
+        return this.frames[frame];
+    }
+
+    @Override
+    public void unpin(int page, boolean dirty) {
+        Integer frame = this.page_table.get(page);
+        if (frame == null || this.pin_counts[frame] == 0) {
+            throw new IllegalStateException("page " + page + " is not pinned");
+        }
+        this.pin_counts[frame]--;
+        this.dirty[frame] |= dirty;
+    }
+
+    /**
+     * 时钟算法: 最多扫描两圈, 第一圈清除访问位, 第二圈一定能找到未被pin的帧
+     */
+    private int victim() {
+        for (int step = 0; step < this.frames.length * 2; ++step) {
+            int frame = this.hand;
+            this.hand = (this.hand + 1) % this.frames.length;
+            if (this.pin_counts[frame] != 0) {
+                continue;
+            }
+            if (this.frame_pages[frame] != -1 && this.referenced[frame]) {
+                this.referenced[frame] = false;
+                continue;
+            }
+            return frame;
+        }
+        throw new IllegalStateException("all " + this.frames.length + " frames are pinned");
+    }
+
+    private void read(int page, int frame) {
+        ByteBuffer buffer = this.frames[frame].duplicate();
+        ((Buffer) buffer).clear();
+        long position = (long) page * this.page_size;
+        try {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void write(int frame) {
+        ByteBuffer buffer = this.frames[frame].duplicate();
+        ((Buffer) buffer).clear();
+        long position = (long) this.frame_pages[frame] * this.page_size;
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.dirty[frame] = false;
+        this.write_back_count++;
+    }
+
+    @Override
+    public void flush() {
+        for (int frame = 0; frame < this.frames.length; ++frame) {
+            if (this.dirty[frame]) {
+                this.write(frame);
+            }
+        }
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.flush();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 统计
+
+    public long getHitCount() {
+        return this.hit_count;
+    }
+
+    public long getMissCount() {
+        return this.miss_count;
+    }
+
+    public long getEvictionCount() {
+        return this.eviction_count;
+    }
+
+    public long getWriteBackCount() {
+        return this.write_back_count;
+    }
+
+    public double hitRatio() {
+        long total = this.hit_count + this.miss_count;
+        return total == 0 ? 0 : (double) this.hit_count / total;
+    }
+
+    public void resetStatistics() {
+        this.hit_count = 0;
+        this.miss_count = 0;
+        this.eviction_count = 0;
+        this.write_back_count = 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.xtremeglory.impl.paged.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 基于内存映射文件的PageStore. 文件按块映射, 每块包含PAGES_PER_CHUNK个页面, 扩容时映射新的块,
+ * 已经映射的块不会重新映射, 因此之前pin得到的页面始终有效.
+ * <p>
+ * 页面直接由操作系统的页缓存管理, pin与unpin不需要做任何事情.
+ */
+public class MappedPageStore implements PageStore {
+    private static final int PAGES_PER_CHUNK = 256;
+
+    private final FileChannel channel;
+    private final int page_size;
+    private MappedByteBuffer[] chunks;
+
+    /**
+     * 打开或创建文件, 并映射文件中已有的全部块
+     *
+     * @param file      文件路径
+     * @param page_size 页面大小(字节)
+     */
+    public MappedPageStore(Path file, int page_size) throws IOException {
+        if (page_size <= 0) {
+            throw new IllegalArgumentException("page_size: " + page_size);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.page_size = page_size;
+        this.chunks = new MappedByteBuffer[0];
+        long chunk_bytes = this.chunkBytes();
+        this.map((int) ((this.channel.size() + chunk_bytes - 1) / chunk_bytes));
+    }
+
+    private long chunkBytes() {
+        return (long) this.page_size * PAGES_PER_CHUNK;
+    }
+
+    private void map(int chunk_count) throws IOException {
+        int mapped = this.chunks.length;
+        if (chunk_count <= mapped) {
+            return;
+        }
+        this.chunks = Arrays.copyOf(this.chunks, chunk_count);
+        long chunk_bytes = this.chunkBytes();
+        for (int i = mapped; i < chunk_count; ++i) {
+            this.chunks[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, i * chunk_bytes, chunk_bytes);
+        }
+    }
+
+    @Override
+    public int pageSize() {
+        return this.page_size;
+    }
+
+    @Override
+    public int capacity() {
+        return this.chunks.length * PAGES_PER_CHUNK;
+    }
+
+    @Override
+    public void grow(int pages) {
+        try {
+            this.map((pages + PAGES_PER_CHUNK - 1) / PAGES_PER_CHUNK);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ByteBuffer pin(int page) {
+        if (page >= this.capacity() || page < 0) {
+            throw new ArrayIndexOutOfBoundsException(page);
+        }
+        // 通过ByteBuffer与Buffer调用, 避免在新版JDK上编译时链接到Java 8中不存在的协变重载
+        ByteBuffer buffer = ((ByteBuffer) this.chunks[page / PAGES_PER_CHUNK]).duplicate();
+        int offset = (page % PAGES_PER_CHUNK) * this.page_size;
+        ((Buffer) buffer).position(offset);
+        ((Buffer) buffer).limit(offset + this.page_size);
+        return buffer.slice();
+    }
+
+    @Override
+    public void unpin(int page, boolean dirty) {
+    }
+
+    @Override
+    public void flush() {
+        for (MappedByteBuffer chunk : this.chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.flush();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
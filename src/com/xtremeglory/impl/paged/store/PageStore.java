@@ -0,0 +1,46 @@
+package com.xtremeglory.impl.paged.store;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * 固定大小页面的存储. 页面按从0开始的页号访问, 页面的分配与布局由使用者(例如PagedBTree)负责.
+ * <p>
+ * 访问页面前调用pin取得页面内容, 用完后必须调用unpin归还; 页面在pin与unpin之间保证驻留,
+ * 对返回的ByteBuffer的修改需要在unpin时以dirty = true告知存储. I/O错误以UncheckedIOException抛出.
+ */
+public interface PageStore extends Closeable {
+    int pageSize();
+
+    /**
+     * @return 当前可以访问的页面数
+     */
+    int capacity();
+
+    /**
+     * 保证至少有pages个页面可以访问, 新增的页面内容为0
+     *
+     * @param pages 需要的页面数
+     */
+    void grow(int pages);
+
+    /**
+     * @param page 页号
+     * @return 页面内容, 下标0对应页面的第一个字节, 容量为pageSize()
+     */
+    ByteBuffer pin(int page);
+
+    /**
+     * @param page  页号
+     * @param dirty 页面是否被修改
+     */
+    void unpin(int page, boolean dirty);
+
+    /**
+     * 把所有修改写入底层存储
+     */
+    void flush();
+
+    @Override
+    void close();
+}
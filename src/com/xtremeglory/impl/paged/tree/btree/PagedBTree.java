@@ -0,0 +1,693 @@
+package com.xtremeglory.impl.paged.tree.btree;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.Tree;
+import com.xtremeglory.impl.Visitor;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+import com.xtremeglory.impl.paged.KeyCodec;
+import com.xtremeglory.impl.paged.store.PageStore;
+
+import java.io.Closeable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 节点保存在PageStore页面中的BTree, 算法与BTree一致, 关键字为定长, 由KeyCodec编码.
+ * <p>
+ * 页面0为文件头, 其余每个页面保存一个节点, 子节点以页号表示; 删除时释放的页面串成空闲链表并被再次分配.
+ * 打开已有的存储只需要读取文件头, 不需要重建树. 文件头在flush()与close()时写入, 因此只有在它们之后存储才是一致的.
+ * <p>
+ * 节点页面布局:
+ * <pre>
+ * 0               叶子标记(1字节)
+ * 4               元素个数(int)
+ * 8               DIM个关键字, 多出的一个位置用于分裂前的暂存
+ * 8 + DIM * width DIM + 1个子节点页号(int)
+ * </pre>
+ *
+ * @param <E>
+ */
+public class PagedBTree<E extends Comparable<E>> implements Tree<E>, Closeable {
+    private static final int MAGIC = 0x42545245;
+    // 文件头中各字段的偏移
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_PAGE_SIZE = 4;
+    private static final int HEADER_KEY_WIDTH = 8;
+    private static final int HEADER_DIM = 12;
+    private static final int HEADER_ROOT = 16;
+    private static final int HEADER_SIZE = 20;
+    private static final int HEADER_HEIGHT = 24;
+    private static final int HEADER_PAGE_COUNT = 28;
+    private static final int HEADER_FREE_HEAD = 32;
+
+    private static final int HEADER_PAGE = 0;
+    private static final int NODE_LEAF = 0;
+    private static final int NODE_SIZE = 4;
+    private static final int NODE_KEYS = 8;
+
+    private final PageStore store;
+    private final KeyCodec<E> codec;
+    protected final int DIM;
+    private final int key_width;
+    private final int children_offset;
+    private final byte[] scratch;
+
+    private int root;
+    private int size;
+    private int height;
+    private int page_count;
+    private int free_head;
+    private int mod_count;
+
+    /**
+     * 打开存储中已有的树; 存储为空时创建新树, 此时DIM取页面能容纳的最大值
+     */
+    public PagedBTree(PageStore store, KeyCodec<E> codec) {
+        this(store, codec, maxDIM(store.pageSize(), codec.width()));
+    }
+
+    /**
+     * 打开存储中已有的树(DIM以文件头为准); 存储为空时以给定的DIM创建新树
+     */
+    public PagedBTree(PageStore store, KeyCodec<E> codec, int DIM) {
+        this.store = store;
+        this.codec = codec;
+        this.key_width = codec.width();
+        this.scratch = new byte[store.pageSize()];
+
+        if (store.capacity() > 0 && this.readHeader()) {
+            this.DIM = this.header(HEADER_DIM);
+        } else {
+            if (DIM < 3 || DIM > maxDIM(store.pageSize(), this.key_width)) {
+                throw new IllegalArgumentException("DIM: " + DIM);
+            }
+            this.DIM = DIM;
+            this.page_count = 1;
+            store.grow(1);
+            this.root = this.allocate();
+            this.initNode(this.root, true);
+            this.size = 0;
+            this.height = 1;
+            this.free_head = 0;
+            this.writeHeader();
+        }
+        this.children_offset = NODE_KEYS + this.DIM * this.key_width;
+    }
+
+    /**
+     * @return 页面能容纳的最大DIM
+     */
+    public static int maxDIM(int page_size, int key_width) {
+        return (page_size - NODE_KEYS - Integer.BYTES) / (key_width + Integer.BYTES);
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * @return 已经使用过的页面数(包括文件头与空闲页面)
+     */
+    public int pageCount() {
+        return this.page_count;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    // 文件头
+
+    private int header(int offset) {
+        ByteBuffer header = this.store.pin(HEADER_PAGE);
+        try {
+            return header.getInt(offset);
+        } finally {
+            this.store.unpin(HEADER_PAGE, false);
+        }
+    }
+
+    private boolean readHeader() {
+        ByteBuffer header = this.store.pin(HEADER_PAGE);
+        try {
+            if (header.getInt(HEADER_MAGIC) != MAGIC) {
+                return false;
+            }
+            if (header.getInt(HEADER_PAGE_SIZE) != this.store.pageSize() || header.getInt(HEADER_KEY_WIDTH) != this.key_width) {
+                throw new IllegalStateException("page size or key width mismatch");
+            }
+            this.root = header.getInt(HEADER_ROOT);
+            this.size = header.getInt(HEADER_SIZE);
+            this.height = header.getInt(HEADER_HEIGHT);
+            this.page_count = header.getInt(HEADER_PAGE_COUNT);
+            this.free_head = header.getInt(HEADER_FREE_HEAD);
+            this.store.grow(this.page_count);
+            return true;
+        } finally {
+            this.store.unpin(HEADER_PAGE, false);
+        }
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = this.store.pin(HEADER_PAGE);
+        header.putInt(HEADER_MAGIC, MAGIC);
+        header.putInt(HEADER_PAGE_SIZE, this.store.pageSize());
+        header.putInt(HEADER_KEY_WIDTH, this.key_width);
+        header.putInt(HEADER_DIM, this.DIM);
+        header.putInt(HEADER_ROOT, this.root);
+        header.putInt(HEADER_SIZE, this.size);
+        header.putInt(HEADER_HEIGHT, this.height);
+        header.putInt(HEADER_PAGE_COUNT, this.page_count);
+        header.putInt(HEADER_FREE_HEAD, this.free_head);
+        this.store.unpin(HEADER_PAGE, true);
+    }
+
+    public void flush() {
+        this.writeHeader();
+        this.store.flush();
+    }
+
+    @Override
+    public void close() {
+        this.writeHeader();
+        this.store.close();
+    }
+
+    // 页面分配
+
+    private int allocate() {
+        if (this.free_head != 0) {
+            int page = this.free_head;
+            ByteBuffer node = this.store.pin(page);
+            this.free_head = node.getInt(0);
+            this.store.unpin(page, false);
+            return page;
+        }
+        int page = this.page_count++;
+        this.store.grow(this.page_count);
+        return page;
+    }
+
+    private void free(int page) {
+        ByteBuffer node = this.store.pin(page);
+        node.putInt(0, this.free_head);
+        this.store.unpin(page, true);
+        this.free_head = page;
+    }
+
+    private void initNode(int page, boolean leaf) {
+        ByteBuffer node = this.store.pin(page);
+        node.put(NODE_LEAF, (byte) (leaf ? 1 : 0));
+        node.putInt(NODE_SIZE, 0);
+        this.store.unpin(page, true);
+    }
+
+    // 节点页面的读写
+
+    private boolean isLeaf(ByteBuffer node) {
+        return node.get(NODE_LEAF) != 0;
+    }
+
+    private int count(ByteBuffer node) {
+        return node.getInt(NODE_SIZE);
+    }
+
+    private void setCount(ByteBuffer node, int count) {
+        node.putInt(NODE_SIZE, count);
+    }
+
+    private int keyOffset(int index) {
+        return NODE_KEYS + index * this.key_width;
+    }
+
+    private int childOffset(int index) {
+        return this.children_offset + index * Integer.BYTES;
+    }
+
+    private E key(ByteBuffer node, int index) {
+        return this.codec.decode(node, this.keyOffset(index));
+    }
+
+    private void setKey(ByteBuffer node, int index, E key) {
+        this.codec.encode(key, node, this.keyOffset(index));
+    }
+
+    private int child(ByteBuffer node, int index) {
+        return node.getInt(this.childOffset(index));
+    }
+
+    private void setChild(ByteBuffer node, int index, int page) {
+        node.putInt(this.childOffset(index), page);
+    }
+
+    /**
+     * 页面之间(或页面内部)复制字节, 区域可以重叠
+     */
+    private void move(ByteBuffer source, int source_offset, ByteBuffer target, int target_offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        // position(int)通过Buffer调用, 避免在新版JDK上编译时链接到Java 8中不存在的协变重载
+        ByteBuffer from = source.duplicate();
+        ((Buffer) from).position(source_offset);
+        from.get(this.scratch, 0, length);
+        ByteBuffer to = target.duplicate();
+        ((Buffer) to).position(target_offset);
+        to.put(this.scratch, 0, length);
+    }
+
+    private void moveKeys(ByteBuffer source, int from, ByteBuffer target, int to, int count) {
+        this.move(source, this.keyOffset(from), target, this.keyOffset(to), count * this.key_width);
+    }
+
+    private void moveChildren(ByteBuffer source, int from, ByteBuffer target, int to, int count) {
+        this.move(source, this.childOffset(from), target, this.childOffset(to), count * Integer.BYTES);
+    }
+
+    /**
+     * @return 命中时返回下标, 否则返回 -(子树位置) - 1
+     */
+    private int search(ByteBuffer node, E element) {
+        int low = 0, high = this.count(node) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = this.codec.compare(element, node, this.keyOffset(middle));
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * 在position处插入关键字, right为关键字右侧的子节点(叶子忽略)
+     */
+    private void insertAt(ByteBuffer node, int position, E key, int right) {
+        int count = this.count(node);
+        this.moveKeys(node, position, node, position + 1, count - position);
+        this.setKey(node, position, key);
+        if (!this.isLeaf(node)) {
+            this.moveChildren(node, position + 1, node, position + 2, count - position);
+            this.setChild(node, position + 1, right);
+        }
+        this.setCount(node, count + 1);
+    }
+
+    /**
+     * 删除position处的关键字以及它右侧的子节点
+     */
+    private void removeAt(ByteBuffer node, int position) {
+        int count = this.count(node);
+        this.moveKeys(node, position + 1, node, position, count - position - 1);
+        if (!this.isLeaf(node)) {
+            this.moveChildren(node, position + 2, node, position + 1, count - position - 1);
+        }
+        this.setCount(node, count - 1);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    // 查找
+
+    @Override
+    public E find(E element) {
+        int page = this.root;
+        while (true) {
+            ByteBuffer node = this.store.pin(page);
+            int next;
+            try {
+                int position = this.search(node, element);
+                if (position >= 0) {
+                    return this.key(node, position);
+                }
+                if (this.isLeaf(node)) {
+                    return null;
+                }
+                next = this.child(node, -position - 1);
+            } finally {
+                this.store.unpin(page, false);
+            }
+            page = next;
+        }
+    }
+
+    // 插入
+
+    @Override
+    public PagedBTree<E> insert(E element) {
+        if (!this._insert(this.root, element)) {
+            return this;
+        }
+        this.size++;
+        this.mod_count++;
+        ByteBuffer root = this.store.pin(this.root);
+        boolean full = this.count(root) == this.DIM;
+        this.store.unpin(this.root, false);
+        if (full) {
+            int page = this.allocate();
+            ByteBuffer node = this.store.pin(page);
+            node.put(NODE_LEAF, (byte) 0);
+            this.setCount(node, 0);
+            this.setChild(node, 0, this.root);
+            this.splitChild(node, 0);
+            this.store.unpin(page, true);
+            this.root = page;
+            this.height++;
+        }
+        return this;
+    }
+
+    /**
+     * 插入后节点的元素个数可能暂时达到DIM, 由父节点负责分裂
+     *
+     * @return 是否插入了元素
+     */
+    private boolean _insert(int page, E element) {
+        ByteBuffer node = this.store.pin(page);
+        boolean modified = false;
+        try {
+            int position = this.search(node, element);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (this.isLeaf(node)) {
+                this.insertAt(node, position, element, 0);
+                modified = true;
+                return true;
+            }
+            int child = this.child(node, position);
+            if (!this._insert(child, element)) {
+                return false;
+            }
+            ByteBuffer child_node = this.store.pin(child);
+            boolean full = this.count(child_node) == this.DIM;
+            this.store.unpin(child, false);
+            if (full) {
+                this.splitChild(node, position);
+                modified = true;
+            }
+            return true;
+        } finally {
+            this.store.unpin(page, modified);
+        }
+    }
+
+    /**
+     * 分裂已满的子节点children[position], 中间关键字上移到parent
+     */
+    private void splitChild(ByteBuffer parent, int position) {
+        int page = this.child(parent, position);
+        int right_page = this.allocate();
+        ByteBuffer node = this.store.pin(page);
+        ByteBuffer right = this.store.pin(right_page);
+
+        int middle = this.DIM / 2;
+        int count = this.count(node);
+        boolean leaf = this.isLeaf(node);
+        right.put(NODE_LEAF, (byte) (leaf ? 1 : 0));
+        this.moveKeys(node, middle + 1, right, 0, count - middle - 1);
+        if (!leaf) {
+            this.moveChildren(node, middle + 1, right, 0, count - middle);
+        }
+        this.setCount(right, count - middle - 1);
+        E separator = this.key(node, middle);
+        this.setCount(node, middle);
+        this.insertAt(parent, position, separator, right_page);
+
+        this.store.unpin(right_page, true);
+        this.store.unpin(page, true);
+    }
+
+    // 删除
+
+    @Override
+    public PagedBTree<E> remove(E element) {
+        if (!this._remove(this.root, element)) {
+            return this;
+        }
+        this.size--;
+        this.mod_count++;
+        ByteBuffer root = this.store.pin(this.root);
+        int next = !this.isLeaf(root) && this.count(root) == 0 ? this.child(root, 0) : -1;
+        this.store.unpin(this.root, false);
+        if (next != -1) {
+            this.free(this.root);
+            this.root = next;
+            this.height--;
+        }
+        return this;
+    }
+
+    private E max(int page) {
+        while (true) {
+            ByteBuffer node = this.store.pin(page);
+            int count = this.count(node);
+            if (this.isLeaf(node)) {
+                E max = this.key(node, count - 1);
+                this.store.unpin(page, false);
+                return max;
+            }
+            int next = this.child(node, count);
+            this.store.unpin(page, false);
+            page = next;
+        }
+    }
+
+    /**
+     * 删除后节点的元素个数可能低于下限, 由父节点负责平衡
+     *
+     * @return 是否删除了元素
+     */
+    private boolean _remove(int page, E element) {
+        ByteBuffer node = this.store.pin(page);
+        boolean modified = false;
+        try {
+            int position = this.search(node, element);
+            if (this.isLeaf(node)) {
+                if (position < 0) {
+                    return false;
+                }
+                this.removeAt(node, position);
+                modified = true;
+                return true;
+            }
+            if (position >= 0) {
+                // 用左子树的最大值替换被删除元素
+                int child = this.child(node, position);
+                E predecessor = this.max(child);
+                this.setKey(node, position, predecessor);
+                this._remove(child, predecessor);
+            } else {
+                position = -position - 1;
+                if (!this._remove(this.child(node, position), element)) {
+                    return false;
+                }
+            }
+            this.rebalance(node, position);
+            modified = true;
+            return true;
+        } finally {
+            this.store.unpin(page, modified);
+        }
+    }
+
+    /**
+     * 子节点children[position]元素不足时, 优先向兄弟借用, 否则与兄弟合并
+     */
+    private void rebalance(ByteBuffer parent, int position) {
+        int child_page = this.child(parent, position);
+        ByteBuffer child = this.store.pin(child_page);
+        int count = this.count(child);
+        if (count >= this.minElementSize()) {
+            this.store.unpin(child_page, false);
+            return;
+        }
+        boolean leaf = this.isLeaf(child);
+        if (position > 0) {
+            int left_page = this.child(parent, position - 1);
+            ByteBuffer left = this.store.pin(left_page);
+            int left_count = this.count(left);
+            if (left_count > this.minElementSize()) {
+                this.moveKeys(child, 0, child, 1, count);
+                this.setKey(child, 0, this.key(parent, position - 1));
+                if (!leaf) {
+                    this.moveChildren(child, 0, child, 1, count + 1);
+                    this.setChild(child, 0, this.child(left, left_count));
+                }
+                this.setCount(child, count + 1);
+                this.setKey(parent, position - 1, this.key(left, left_count - 1));
+                this.setCount(left, left_count - 1);
+                this.store.unpin(left_page, true);
+                this.store.unpin(child_page, true);
+                return;
+            }
+            this.store.unpin(left_page, false);
+        }
+        if (position < this.count(parent)) {
+            int right_page = this.child(parent, position + 1);
+            ByteBuffer right = this.store.pin(right_page);
+            int right_count = this.count(right);
+            if (right_count > this.minElementSize()) {
+                this.setKey(child, count, this.key(parent, position));
+                if (!leaf) {
+                    this.setChild(child, count + 1, this.child(right, 0));
+                    this.moveChildren(right, 1, right, 0, right_count);
+                }
+                this.setCount(child, count + 1);
+                this.setKey(parent, position, this.key(right, 0));
+                this.moveKeys(right, 1, right, 0, right_count - 1);
+                this.setCount(right, right_count - 1);
+                this.store.unpin(right_page, true);
+                this.store.unpin(child_page, true);
+                return;
+            }
+            this.store.unpin(right_page, false);
+        }
+        this.store.unpin(child_page, false);
+
+        if (position == this.count(parent)) {
+            position = position - 1;
+        }
+        int left_page = this.child(parent, position);
+        int right_page = this.child(parent, position + 1);
+        ByteBuffer left = this.store.pin(left_page);
+        ByteBuffer right = this.store.pin(right_page);
+        int left_count = this.count(left);
+        int right_count = this.count(right);
+        this.setKey(left, left_count, this.key(parent, position));
+        this.moveKeys(right, 0, left, left_count + 1, right_count);
+        if (!leaf) {
+            this.moveChildren(right, 0, left, left_count + 1, right_count + 1);
+        }
+        this.setCount(left, left_count + right_count + 1);
+        this.removeAt(parent, position);
+        this.store.unpin(right_page, false);
+        this.store.unpin(left_page, true);
+        this.free(right_page);
+    }
+
+    // 遍历
+
+    @Override
+    public void travel(Visitor<E> visitor) {
+        this.travel(this.root, visitor);
+    }
+
+    private void travel(int page, Visitor<E> visitor) {
+        ByteBuffer node = this.store.pin(page);
+        try {
+            int count = this.count(node);
+            boolean leaf = this.isLeaf(node);
+            for (int i = 0; i < count; ++i) {
+                if (!leaf) {
+                    this.travel(this.child(node, i), visitor);
+                }
+                visitor.visit(this.key(node, i));
+            }
+            if (!leaf) {
+                this.travel(this.child(node, count), visitor);
+            }
+        } finally {
+            this.store.unpin(page, false);
+        }
+    }
+
+    @Override
+    public List<E> asList() {
+        List<E> list = new ArrayList<>(this.size);
+        this.travel(element -> list.insert(element, list.size()));
+        return list;
+    }
+
+    /**
+     * 迭代器只记录路径上的页号与位置, 每次访问页面时pin, 不会长时间占用页面
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new PagedBTreeIterator();
+    }
+
+    private final class PagedBTreeIterator implements Iterator<E> {
+        private final int[] pages;
+        private final int[] cursors;
+        private int depth;
+        private final int expected_mod_count;
+
+        PagedBTreeIterator() {
+            this.pages = new int[height];
+            this.cursors = new int[height];
+            this.depth = -1;
+            this.expected_mod_count = mod_count;
+            this.pushLeftmost(root);
+            this.popFinished();
+        }
+
+        private void pushLeftmost(int page) {
+            while (true) {
+                this.pages[++this.depth] = page;
+                this.cursors[this.depth] = 0;
+                ByteBuffer node = store.pin(page);
+                int next = isLeaf(node) ? -1 : child(node, 0);
+                store.unpin(page, false);
+                if (next == -1) {
+                    return;
+                }
+                page = next;
+            }
+        }
+
+        private void popFinished() {
+            while (this.depth >= 0) {
+                int page = this.pages[this.depth];
+                ByteBuffer node = store.pin(page);
+                int count = count(node);
+                store.unpin(page, false);
+                if (this.cursors[this.depth] < count) {
+                    return;
+                }
+                this.depth--;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth >= 0;
+        }
+
+        @Override
+        public E next() {
+            if (mod_count != this.expected_mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.depth < 0) {
+                throw new NoSuchElementException();
+            }
+            int page = this.pages[this.depth];
+            ByteBuffer node = store.pin(page);
+            int cursor = this.cursors[this.depth]++;
+            E element = key(node, cursor);
+            int next = isLeaf(node) ? -1 : child(node, cursor + 1);
+            store.unpin(page, false);
+            if (next != -1) {
+                this.pushLeftmost(next);
+            }
+            this.popFinished();
+            return element;
+        }
+    }
+}
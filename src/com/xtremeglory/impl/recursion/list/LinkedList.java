@@ -2,8 +2,14 @@ package com.xtremeglory.impl.recursion.list;
 
 import com.xtremeglory.impl.List;
 import com.xtremeglory.impl.ValueBox;
+import com.xtremeglory.impl.metrics.Metrics;
 
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Node表示的是链表中的一个节点, 通过next指针把其他的Node节点串联起来.
@@ -62,6 +68,68 @@ final class Node<E> {
         return this;
     }
 
+    /**
+     * 在index位置接入一条以first开头, last结尾的链
+     */
+    void insertAll(Node<E> first, Node<E> last, int index) {
+        if (index > 0) {
+            this.next.insertAll(first, last, index - 1);
+        } else {
+            last.next = this.next;
+            this.next = first;
+        }
+    }
+
+    /**
+     * 删除从index开始的count个元素
+     */
+    void removeRange(int index, int count) {
+        if (index > 0) {
+            this.next.removeRange(index - 1, count);
+        } else {
+            this.next = this.next.skip(count);
+        }
+    }
+
+    /**
+     * @param count 跳过的节点个数(包括当前节点), 至少为1
+     * @return 从当前节点开始跳过count个节点后到达的节点, 可能为null
+     */
+    Node<E> skip(int count) {
+        return count > 1 ? this.next.skip(count - 1) : this.next;
+    }
+
+    /**
+     * 对后继中的元素依次求值, 把满足条件的元素的下标记入marked
+     *
+     * @param index 后继节点的下标
+     */
+    void mark(Predicate<? super E> filter, BitSet marked, int index) {
+        if (this.next != null) {
+            if (filter.test(this.next.element)) {
+                marked.set(index);
+            }
+            this.next.mark(filter, marked, index + 1);
+        }
+    }
+
+    /**
+     * 删除后继中所有被标记的元素
+     *
+     * @param index 后继节点的下标
+     */
+    void removeMarked(BitSet marked, int index) {
+        if (this.next == null) {
+            return;
+        }
+        if (marked.get(index)) {
+            this.next = this.next.next;
+            this.removeMarked(marked, index + 1);
+        } else {
+            this.next.removeMarked(marked, index + 1);
+        }
+    }
+
     void set(E element, int index) {
         if (index > 0) {
             this.next.set(element, index - 1);
@@ -109,10 +177,13 @@ final class Node<E> {
 public class LinkedList<E> implements List<E> {
     private final Node<E> head;
     private int size;
+    // 结构修改(插入,删除)的次数,用于迭代器的快速失败检查
+    private int mod_count;
 
     public LinkedList() {
         this.head = new Node<>();
         this.size = 0;
+        this.mod_count = 0;
     }
 
     @Override
@@ -120,8 +191,12 @@ public class LinkedList<E> implements List<E> {
         if (index > this.size || index < 0) {
             throw new ArrayIndexOutOfBoundsException(index);
         } else {
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_WALK, index);
+            }
             this.head.insert(element, index);
             ++this.size;
+            ++this.mod_count;
         }
     }
 
@@ -130,9 +205,13 @@ public class LinkedList<E> implements List<E> {
         if (index > this.size || index < 0) {
             throw new ArrayIndexOutOfBoundsException(index);
         } else {
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_WALK, index);
+            }
             ValueBox<E> value_box = new ValueBox<>();
             this.head.remove(index, value_box);
             --this.size;
+            ++this.mod_count;
             return value_box.get();
         }
     }
@@ -145,15 +224,73 @@ public class LinkedList<E> implements List<E> {
             ValueBox<E> value_box = new ValueBox<>();
             this.head.remove(element, index, value_box);
             --this.size;
+            ++this.mod_count;
             return value_box.get();
         }
     }
 
+    /**
+     * 先把source复制成一条独立的链, 再递归定位一次整体接入; 因此source可以是当前表
+     */
+    @Override
+    public void insertAll(Iterable<? extends E> source, int index) {
+        if (index > this.size || index < 0) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        Node<E> first = new Node<>();
+        Node<E> last = first;
+        int count = 0;
+        for (E element : source) {
+            last.next = new Node<>(element, null);
+            last = last.next;
+            ++count;
+        }
+        if (count != 0) {
+            this.head.insertAll(first.next, last, index);
+            this.size += count;
+            ++this.mod_count;
+        }
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > this.size) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        if (from != to) {
+            this.head.removeRange(from, to - from);
+            this.size -= to - from;
+            ++this.mod_count;
+        }
+    }
+
+    /**
+     * 先对所有元素求值, 谓词抛出异常时表保持不变; 再删除被标记的元素
+     */
+    @Override
+    public int removeIf(Predicate<? super E> filter) {
+        BitSet marked = new BitSet(this.size);
+        this.head.mark(filter, marked, 0);
+        int removed = marked.cardinality();
+        if (removed != 0) {
+            this.head.removeMarked(marked, 0);
+            this.size -= removed;
+            ++this.mod_count;
+        }
+        return removed;
+    }
+
     @Override
     public void set(E element, int index) {
         if (index >= this.size || index < 0) {
             throw new ArrayIndexOutOfBoundsException(index);
         } else {
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_WALK, index);
+            }
             this.head.next.set(element, index);
         }
     }
@@ -163,6 +300,9 @@ public class LinkedList<E> implements List<E> {
         if (index >= this.size || index < 0) {
             throw new ArrayIndexOutOfBoundsException(index);
         } else {
+            if (Metrics.ENABLED) {
+                Metrics.record(Metrics.LIST_WALK, index);
+            }
             return this.head.next.get(index);
         }
     }
@@ -202,4 +342,58 @@ public class LinkedList<E> implements List<E> {
             return (E[]) array;
         }
     }
+
+    /**
+     * 迭代器直接沿着next指针前进, 不经过递归, 每一步为O(1)且不产生额外对象
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new LinkedListIterator();
+    }
+
+    private class LinkedListIterator implements Iterator<E> {
+        // cursor指向上一次next()返回的节点, previous是cursor的前驱; 调用remove()后previous置空
+        private Node<E> cursor;
+        private Node<E> previous;
+        private int expected_mod_count;
+
+        LinkedListIterator() {
+            this.cursor = head;
+            this.previous = null;
+            this.expected_mod_count = mod_count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.cursor.next != null;
+        }
+
+        @Override
+        public E next() {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.cursor.next == null) {
+                throw new NoSuchElementException();
+            }
+            this.previous = this.cursor;
+            this.cursor = this.cursor.next;
+            return this.cursor.element;
+        }
+
+        @Override
+        public void remove() {
+            if (this.previous == null) {
+                throw new IllegalStateException();
+            }
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            this.previous.next = this.cursor.next;
+            this.cursor = this.previous;
+            this.previous = null;
+            --size;
+            this.expected_mod_count = ++mod_count;
+        }
+    }
 }
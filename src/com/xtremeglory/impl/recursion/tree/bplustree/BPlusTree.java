@@ -0,0 +1,443 @@
+package com.xtremeglory.impl.recursion.tree.bplustree;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.Pair;
+import com.xtremeglory.impl.Tree;
+import com.xtremeglory.impl.Visitor;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * B+树: 所有元素都保存在叶子节点中, 叶子节点通过next指针按升序串联;
+ * 内部节点只保存分隔关键字, children[i]中的元素都小于keys[i], children[i + 1]中的元素都不小于keys[i].
+ * 完整遍历与区间遍历只需要找到起始叶子, 然后沿着next指针前进, 不需要借助栈回溯.
+ * <p>
+ * 与BTree不同, BPlusTree对象本身是一个稳定的句柄, insert与remove总是返回this
+ *
+ * @param <E>
+ */
+public class BPlusTree<E extends Comparable<E>> implements Tree<E> {
+    abstract static class Node<E> {
+        int key_size;
+        final E[] keys;
+
+        @SuppressWarnings("unchecked")
+        Node(int capacity) {
+            this.key_size = 0;
+            this.keys = (E[]) new Comparable[capacity];
+        }
+
+        abstract boolean isLeaf();
+    }
+
+    static final class LeafNode<E> extends Node<E> {
+        LeafNode<E> next;
+
+        LeafNode(int DIM) {
+            // 叶子最多保存DIM - 1个元素, 多出的一个位置用于分裂前的暂存
+            super(DIM);
+        }
+
+        @Override
+        boolean isLeaf() {
+            return true;
+        }
+    }
+
+    static final class InternalNode<E> extends Node<E> {
+        final Node<E>[] children;
+
+        @SuppressWarnings("unchecked")
+        InternalNode(int DIM) {
+            super(DIM);
+            this.children = new Node[DIM + 1];
+        }
+
+        @Override
+        boolean isLeaf() {
+            return false;
+        }
+    }
+
+    protected final int DIM;
+    private Node<E> root;
+    private int size;
+
+    public BPlusTree(int DIM) {
+        if (DIM < 3) {
+            throw new IllegalArgumentException("DIM: " + DIM);
+        }
+        this.DIM = DIM;
+        this.root = new LeafNode<>(DIM);
+        this.size = 0;
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    /**
+     * 树的高度, 只有一个叶子节点时为1
+     */
+    public int height() {
+        int height = 1;
+        for (Node<E> node = this.root; !node.isLeaf(); node = ((InternalNode<E>) node).children[0]) {
+            ++height;
+        }
+        return height;
+    }
+
+    /**
+     * 在节点的关键字中二分查找
+     *
+     * @return 命中时返回下标, 否则返回 -(插入位置) - 1
+     */
+    private static <E extends Comparable<E>> int search(Node<E> node, E element) {
+        int low = 0, high = node.key_size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = element.compareTo(node.keys[middle]);
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * 内部节点中element所在子树的位置: 等于分隔关键字时进入右子树
+     */
+    private static <E extends Comparable<E>> int childIndex(InternalNode<E> node, E element) {
+        int position = search(node, element);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    private LeafNode<E> findLeaf(E element) {
+        Node<E> node = this.root;
+        while (!node.isLeaf()) {
+            InternalNode<E> internal = (InternalNode<E>) node;
+            node = internal.children[childIndex(internal, element)];
+        }
+        return (LeafNode<E>) node;
+    }
+
+    private LeafNode<E> firstLeaf() {
+        Node<E> node = this.root;
+        while (!node.isLeaf()) {
+            node = ((InternalNode<E>) node).children[0];
+        }
+        return (LeafNode<E>) node;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public E find(E element) {
+        LeafNode<E> leaf = this.findLeaf(element);
+        int position = search(leaf, element);
+        return position >= 0 ? leaf.keys[position] : null;
+    }
+
+    // 插入
+
+    @Override
+    public BPlusTree<E> insert(E element) {
+        Pair<E, Node<E>> split = this._insert(this.root, element);
+        if (split != null) {
+            InternalNode<E> root = new InternalNode<>(this.DIM);
+            root.keys[0] = split.first;
+            root.children[0] = this.root;
+            root.children[1] = split.second;
+            root.key_size = 1;
+            this.root = root;
+        }
+        return this;
+    }
+
+    /**
+     * 把element插入以node为根的子树
+     *
+     * @return 如果node发生了分裂, 返回(上移的分隔关键字, 分裂出的右节点), 否则返回null
+     */
+    private Pair<E, Node<E>> _insert(Node<E> node, E element) {
+        if (node.isLeaf()) {
+            LeafNode<E> leaf = (LeafNode<E>) node;
+            int position = search(leaf, element);
+            if (position >= 0) {
+                return null;
+            }
+            position = -position - 1;
+            System.arraycopy(leaf.keys, position, leaf.keys, position + 1, leaf.key_size - position);
+            leaf.keys[position] = element;
+            leaf.key_size++;
+            this.size++;
+            return leaf.key_size == this.DIM ? this.splitLeaf(leaf) : null;
+        }
+
+        InternalNode<E> internal = (InternalNode<E>) node;
+        int position = childIndex(internal, element);
+        Pair<E, Node<E>> split = this._insert(internal.children[position], element);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(internal.keys, position, internal.keys, position + 1, internal.key_size - position);
+        System.arraycopy(internal.children, position + 1, internal.children, position + 2, internal.key_size - position);
+        internal.keys[position] = split.first;
+        internal.children[position + 1] = split.second;
+        internal.key_size++;
+        return internal.key_size == this.DIM ? this.splitInternal(internal) : null;
+    }
+
+    /**
+     * 叶子分裂时, 右半部分的第一个元素被复制到父节点作为分隔关键字
+     */
+    private Pair<E, Node<E>> splitLeaf(LeafNode<E> leaf) {
+        int middle = leaf.key_size / 2;
+        LeafNode<E> right = new LeafNode<>(this.DIM);
+        right.key_size = leaf.key_size - middle;
+        System.arraycopy(leaf.keys, middle, right.keys, 0, right.key_size);
+        Arrays.fill(leaf.keys, middle, leaf.key_size, null);
+        leaf.key_size = middle;
+        right.next = leaf.next;
+        leaf.next = right;
+        return new Pair<>(right.keys[0], right);
+    }
+
+    /**
+     * 内部节点分裂时, 中间的分隔关键字被移动到父节点
+     */
+    private Pair<E, Node<E>> splitInternal(InternalNode<E> internal) {
+        int middle = internal.key_size / 2;
+        E separator = internal.keys[middle];
+        InternalNode<E> right = new InternalNode<>(this.DIM);
+        right.key_size = internal.key_size - middle - 1;
+        System.arraycopy(internal.keys, middle + 1, right.keys, 0, right.key_size);
+        System.arraycopy(internal.children, middle + 1, right.children, 0, right.key_size + 1);
+        Arrays.fill(internal.keys, middle, internal.key_size, null);
+        Arrays.fill(internal.children, middle + 1, internal.key_size + 1, null);
+        internal.key_size = middle;
+        return new Pair<>(separator, right);
+    }
+
+    // 删除
+
+    @Override
+    public BPlusTree<E> remove(E element) {
+        this._remove(this.root, element);
+        if (!this.root.isLeaf() && this.root.key_size == 0) {
+            this.root = ((InternalNode<E>) this.root).children[0];
+        }
+        return this;
+    }
+
+    /**
+     * @return 元素是否被删除
+     */
+    private boolean _remove(Node<E> node, E element) {
+        if (node.isLeaf()) {
+            int position = search(node, element);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(node.keys, position + 1, node.keys, position, node.key_size - position - 1);
+            node.keys[--node.key_size] = null;
+            this.size--;
+            return true;
+        }
+
+        InternalNode<E> internal = (InternalNode<E>) node;
+        int position = childIndex(internal, element);
+        if (!this._remove(internal.children[position], element)) {
+            return false;
+        }
+        if (internal.children[position].key_size < this.minElementSize()) {
+            this.rebalance(internal, position);
+        }
+        return true;
+    }
+
+    /**
+     * 子节点children[position]元素不足时, 优先向兄弟借用, 否则与兄弟合并
+     */
+    private void rebalance(InternalNode<E> parent, int position) {
+        Node<E> child = parent.children[position];
+        Node<E> left = position > 0 ? parent.children[position - 1] : null;
+        Node<E> right = position < parent.key_size ? parent.children[position + 1] : null;
+
+        if (left != null && left.key_size > this.minElementSize()) {
+            this.borrowFromLeft(parent, position, left, child);
+        } else if (right != null && right.key_size > this.minElementSize()) {
+            this.borrowFromRight(parent, position, child, right);
+        } else if (left != null) {
+            this.mergeChildren(parent, position - 1, left, child);
+        } else {
+            this.mergeChildren(parent, position, child, right);
+        }
+    }
+
+    private void borrowFromLeft(InternalNode<E> parent, int position, Node<E> left, Node<E> child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.key_size);
+        if (child.isLeaf()) {
+            child.keys[0] = left.keys[left.key_size - 1];
+            parent.keys[position - 1] = child.keys[0];
+        } else {
+            InternalNode<E> internal_child = (InternalNode<E>) child;
+            InternalNode<E> internal_left = (InternalNode<E>) left;
+            System.arraycopy(internal_child.children, 0, internal_child.children, 1, child.key_size + 1);
+            child.keys[0] = parent.keys[position - 1];
+            internal_child.children[0] = internal_left.children[left.key_size];
+            internal_left.children[left.key_size] = null;
+            parent.keys[position - 1] = left.keys[left.key_size - 1];
+        }
+        left.keys[--left.key_size] = null;
+        child.key_size++;
+    }
+
+    private void borrowFromRight(InternalNode<E> parent, int position, Node<E> child, Node<E> right) {
+        if (child.isLeaf()) {
+            child.keys[child.key_size] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.key_size - 1);
+            parent.keys[position] = right.keys[0];
+        } else {
+            InternalNode<E> internal_child = (InternalNode<E>) child;
+            InternalNode<E> internal_right = (InternalNode<E>) right;
+            child.keys[child.key_size] = parent.keys[position];
+            internal_child.children[child.key_size + 1] = internal_right.children[0];
+            parent.keys[position] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.key_size - 1);
+            System.arraycopy(internal_right.children, 1, internal_right.children, 0, right.key_size);
+            internal_right.children[right.key_size] = null;
+        }
+        right.keys[--right.key_size] = null;
+        child.key_size++;
+    }
+
+    /**
+     * 把children[position + 1]合并进children[position], 并删除父节点中的分隔关键字keys[position]
+     */
+    private void mergeChildren(InternalNode<E> parent, int position, Node<E> left, Node<E> right) {
+        if (left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.key_size, right.key_size);
+            left.key_size += right.key_size;
+            ((LeafNode<E>) left).next = ((LeafNode<E>) right).next;
+        } else {
+            InternalNode<E> internal_left = (InternalNode<E>) left;
+            left.keys[left.key_size] = parent.keys[position];
+            System.arraycopy(right.keys, 0, left.keys, left.key_size + 1, right.key_size);
+            System.arraycopy(((InternalNode<E>) right).children, 0, internal_left.children, left.key_size + 1, right.key_size + 1);
+            left.key_size += right.key_size + 1;
+        }
+        System.arraycopy(parent.keys, position + 1, parent.keys, position, parent.key_size - position - 1);
+        System.arraycopy(parent.children, position + 2, parent.children, position + 1, parent.key_size - position - 1);
+        parent.keys[parent.key_size - 1] = null;
+        parent.children[parent.key_size] = null;
+        parent.key_size--;
+    }
+
+    // 遍历
+
+    @Override
+    public void travel(Visitor<E> visitor) {
+        for (LeafNode<E> leaf = this.firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.key_size; ++i) {
+                visitor.visit(leaf.keys[i]);
+            }
+        }
+    }
+
+    @Override
+    public List<E> asList() {
+        List<E> list = new ArrayList<>(this.size);
+        this.travel(element -> list.insert(element, list.size()));
+        return list;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new LeafIterator(this.firstLeaf(), 0, null, true);
+    }
+
+    /**
+     * 按升序惰性遍历区间内的元素, 只需要一次根到叶子的下降, 之后沿叶子链表前进
+     *
+     * @param from           区间下界, 为null时表示没有下界
+     * @param from_inclusive 是否包含下界
+     * @param to             区间上界, 为null时表示没有上界
+     * @param to_inclusive   是否包含上界
+     * @return 区间迭代器
+     */
+    public Iterator<E> range(E from, boolean from_inclusive, E to, boolean to_inclusive) {
+        if (from == null) {
+            return new LeafIterator(this.firstLeaf(), 0, to, to_inclusive);
+        }
+        LeafNode<E> leaf = this.findLeaf(from);
+        int position = search(leaf, from);
+        if (position < 0) {
+            position = -position - 1;
+        } else if (!from_inclusive) {
+            position++;
+        }
+        return new LeafIterator(leaf, position, to, to_inclusive);
+    }
+
+    private class LeafIterator implements Iterator<E> {
+        private LeafNode<E> leaf;
+        private int position;
+        private final E to;
+        private final boolean to_inclusive;
+
+        LeafIterator(LeafNode<E> leaf, int position, E to, boolean to_inclusive) {
+            this.leaf = leaf;
+            this.position = position;
+            this.to = to;
+            this.to_inclusive = to_inclusive;
+            this.skipEmpty();
+        }
+
+        /**
+         * 当前叶子遍历完成后移动到下一个叶子
+         */
+        private void skipEmpty() {
+            while (this.leaf != null && this.position >= this.leaf.key_size) {
+                this.leaf = this.leaf.next;
+                this.position = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.leaf == null) {
+                return false;
+            }
+            if (this.to == null) {
+                return true;
+            }
+            int compared = this.leaf.keys[this.position].compareTo(this.to);
+            return compared < 0 || (compared == 0 && this.to_inclusive);
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = this.leaf.keys[this.position++];
+            this.skipEmpty();
+            return element;
+        }
+    }
+}
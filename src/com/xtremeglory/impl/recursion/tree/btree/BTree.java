@@ -1,13 +1,18 @@
 package com.xtremeglory.impl.recursion.tree.btree;
 
 import com.xtremeglory.impl.List;
-import com.xtremeglory.impl.Pair;
 import com.xtremeglory.impl.Tree;
 import com.xtremeglory.impl.Visitor;
-import com.xtremeglory.impl.recursion.list.LinkedList;
-import com.xtremeglory.impl.Stack;
+import com.xtremeglory.impl.iteration.list.LinkedList;
+import com.xtremeglory.impl.metrics.Metrics;
+import com.xtremeglory.impl.metrics.TreeStats;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * 树中每个结点最多含有m棵子树。
@@ -21,15 +26,39 @@ import java.util.Iterator;
 public class BTree<E extends Comparable<E>> implements Tree<E> {
     protected final int DIM;
     private int node_size;
+    // 以当前节点为根的子树中元素的总个数, 在插入,删除,分裂,借用与合并时同步维护
+    private int subtree_size;
     protected final E[] elements;
+    // 叶子节点没有子树, children为null; 节点创建后不会在叶子与内部节点之间转换
     protected final BTree<E>[] children;
+    // 为null时按元素的自然顺序(compareTo)排序; 同一棵树的所有节点共享同一个比较器
+    protected final Comparator<? super E> comparator;
 
-    @SuppressWarnings("unchecked")
     public BTree(int DIM) {
+        this(DIM, null, true);
+    }
+
+    /**
+     * 使用外部比较器代替元素的compareTo, 适用于自然顺序不符合需要或compareTo开销很大的元素
+     *
+     * @param DIM        树的阶
+     * @param comparator 元素的比较器, 为null时使用自然顺序
+     */
+    public BTree(int DIM, Comparator<? super E> comparator) {
+        this(DIM, comparator, true);
+    }
+
+    /**
+     * 节点最多暂时容纳DIM个元素(随后立即分裂), 因此elements长度为DIM, children长度为DIM + 1
+     */
+    @SuppressWarnings("unchecked")
+    private BTree(int DIM, Comparator<? super E> comparator, boolean leaf) {
         this.DIM = DIM;
+        this.comparator = comparator;
         this.node_size = 0;
-        this.elements = (E[]) new Comparable[DIM + 1];
-        this.children = new BTree[DIM + 2];
+        this.subtree_size = 0;
+        this.elements = (E[]) new Comparable[DIM];
+        this.children = leaf ? null : new BTree[DIM + 1];
     }
 
     public int getDIM() {
@@ -40,60 +69,115 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
         return this.node_size;
     }
 
-    private BTree<E> copy(int begin, int end) {
-        BTree<E> root = new BTree<>(this.DIM);
-        for (int i = 0; i < end - begin; ++i) {
-            root.elements[i] = this.elements[begin + i];
-            root.children[i] = this.children[begin + i];
-            root.node_size++;
-        }
-        root.children[end - begin] = this.children[end];
+    /**
+     * @return 使用自然顺序时返回null
+     */
+    public Comparator<? super E> getComparator() {
+        return this.comparator;
+    }
 
-        return root;
+    public boolean isLeaf() {
+        return this.children == null;
+    }
+
+    /**
+     * @return 第i棵子树, 叶子节点返回null
+     */
+    private BTree<E> child(int i) {
+        return this.children == null ? null : this.children[i];
     }
 
+    /**
+     * 比较器为null的分支总是同一个方向, 分支预测后与直接调用compareTo的开销相同
+     */
+    protected final int compare(E a, E b) {
+        return this.comparator == null ? a.compareTo(b) : this.comparator.compare(a, b);
+    }
+
+    private static int subtreeSize(BTree<?> tree) {
+        return tree != null ? tree.subtree_size : 0;
+    }
+
+    /**
+     * 在position处插入元素, 叶子节点忽略left与right
+     */
     private void insertChildren(int position, E element, BTree<E> left, BTree<E> right) {
-        for (int i = this.node_size; i > position; --i) {
-            this.elements[i] = this.elements[i - 1];
-            this.children[i + 1] = this.children[i];
-        }
+        System.arraycopy(this.elements, position, this.elements, position + 1, this.node_size - position);
         this.elements[position] = element;
-        this.children[position] = left;
-        // 思考: 为什么此处children只是挪出一个空位,却能同时放下left和right节点?
-        // 解答: 因为挪动前,原position指向的是要被合并的节点,这个节点在合并后就不复存在,所以这个节点被复制到position+1位置后又被right覆盖
-        this.children[position + 1] = right;
+        if (this.children != null) {
+            System.arraycopy(this.children, position + 1, this.children, position + 2, this.node_size - position);
+            this.children[position] = left;
+            this.children[position + 1] = right;
+        }
         this.node_size++;
     }
 
     private void removeChildren(int position) {
-        for (int i = position; i < this.node_size - 1; ++i) {
-            this.elements[i] = this.elements[i + 1];
-            this.children[i] = this.children[i + 1];
-        }
-        if (position != this.node_size - 1) {
-            /* bugfix: 此处如果删除的是最后一个节点, 那么这个节点最右边的节点会一同删除,如果覆盖前面会导致节点顺序错误
-             * 例如       25 29  32     删除最后一个元素,如果覆盖就会生成        25  29
-             *          /  |   \  \                                     /     |   \
-             *        24   27  30  35                                  24    27   35 => 此处丢失节点30
-             */
-            this.children[this.node_size - 1] = this.children[this.node_size];
+        System.arraycopy(this.elements, position + 1, this.elements, position, this.node_size - position - 1);
+        if (this.children != null) {
+            System.arraycopy(this.children, position + 1, this.children, position, this.node_size - position - 1);
+            if (position != this.node_size - 1) {
+                /* bugfix: 此处如果删除的是最后一个节点, 那么这个节点最右边的节点会一同删除,如果覆盖前面会导致节点顺序错误
+                 * 例如       25 29  32     删除最后一个元素,如果覆盖就会生成        25  29
+                 *          /  |   \  \                                     /     |   \
+                 *        24   27  30  35                                  24    27   35 => 此处丢失节点30
+                 */
+                this.children[this.node_size - 1] = this.children[this.node_size];
+            }
+            this.children[this.node_size] = null;
         }
+        this.elements[this.node_size - 1] = null;
         this.node_size--;
     }
 
     /**
+     * 节点元素个数不超过该值时使用顺序查找, 否则使用二分查找
+     */
+    protected static final int LINEAR_DISPATCH_THRESHOLD = 8;
+
+    /**
+     * 每个探测位置只比较一次; 宽节点使用二分查找, 窄节点顺序查找的分支更容易预测
+     *
      * @param element 需要查找的元素
      * @return 当element在节点中存在时, 返回size + 下标 + 1;这是为了方便remove操作设计的. 否则, 返回需要搜索的位置
      */
     protected int dispatch(E element) {
-        for (int i = 0; i < this.node_size; ++i) {
-            if (element.compareTo(elements[i]) < 0) {
-                return i;
-            } else if (element.compareTo(elements[i]) == 0) {
-                return node_size + i + 1;
+        if (this.node_size <= LINEAR_DISPATCH_THRESHOLD) {
+            for (int i = 0; i < this.node_size; ++i) {
+                int compared = this.compare(element, this.elements[i]);
+                if (compared <= 0) {
+                    if (Metrics.ENABLED) {
+                        Metrics.add(Metrics.BTREE_COMPARE, i + 1);
+                    }
+                    return compared < 0 ? i : this.node_size + i + 1;
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.add(Metrics.BTREE_COMPARE, this.node_size);
+            }
+            return this.node_size;
+        }
+        int low = 0, high = this.node_size - 1;
+        int compares = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = this.compare(element, this.elements[middle]);
+            ++compares;
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                if (Metrics.ENABLED) {
+                    Metrics.add(Metrics.BTREE_COMPARE, compares);
+                }
+                return this.node_size + middle + 1;
             }
         }
-        return node_size;
+        if (Metrics.ENABLED) {
+            Metrics.add(Metrics.BTREE_COMPARE, compares);
+        }
+        return low;
     }
 
     protected int minElementSize() {
@@ -101,63 +185,165 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
     }
 
     public E max() {
-        if (this.children[this.node_size] != null) {
-            return this.children[this.node_size].max();
+        if (this.child(this.node_size) != null) {
+            return this.child(this.node_size).max();
         } else {
             return this.elements[this.node_size - 1];
         }
     }
 
     public E min() {
-        if (this.children[0] != null) {
-            return this.children[0].min();
+        if (this.child(0) != null) {
+            return this.child(0).min();
         } else {
             return this.elements[0];
         }
     }
 
-    protected BTree<E> split() {
+    /**
+     * 原地分裂: 当前节点保留前DIM / 2个元素作为左半部分, 中间元素之后的部分移入新建的右半节点.
+     * 中间元素elements[DIM / 2]需要由调用者在分裂前取出, 放入父节点
+     *
+     * @return 右半节点
+     */
+    private BTree<E> splitRight() {
+        if (Metrics.ENABLED) {
+            Metrics.increment(Metrics.BTREE_SPLIT);
+        }
         int middle = this.DIM / 2;
-        BTree<E> root = new BTree<>(this.DIM);
-        root.elements[root.node_size++] = this.elements[this.DIM / 2];
-        root.children[0] = this.copy(0, middle);             // left splited node
-        root.children[1] = this.copy(middle + 1, this.DIM);    // right splited node
-
-        return root;
+        int count = this.node_size - middle - 1;
+        BTree<E> right = new BTree<E>(this.DIM, this.comparator, this.isLeaf());
+        System.arraycopy(this.elements, middle + 1, right.elements, 0, count);
+        Arrays.fill(this.elements, middle, this.node_size, null);
+        right.node_size = count;
+        right.subtree_size = count;
+        if (this.children != null) {
+            System.arraycopy(this.children, middle + 1, right.children, 0, count + 1);
+            Arrays.fill(this.children, middle + 1, this.node_size + 1, null);
+            for (int i = 0; i <= count; ++i) {
+                right.subtree_size += right.children[i].subtree_size;
+            }
+        }
+        this.node_size = middle;
+        this.subtree_size -= right.subtree_size + 1;
+        return right;
     }
 
-    protected void merge(int position) {
-        BTree<E> merging = this.children[position];
-        this.insertChildren(position, merging.elements[0], merging.children[0], merging.children[1]);
+    /**
+     * 根节点分裂, 只有这里会使树长高
+     *
+     * @return 新的根节点
+     */
+    protected BTree<E> split() {
+        E middle = this.elements[this.DIM / 2];
+        int size = this.subtree_size;
+        BTree<E> right = this.splitRight();
+        BTree<E> root = new BTree<E>(this.DIM, this.comparator, false);
+        root.insertChildren(0, middle, this, right);
+        root.subtree_size = size;
+
+        return root;
     }
 
-    private void _insert(E element) {
+    /**
+     * @param element 需要插入的元素
+     * @return 元素是否被插入, 元素已经存在时返回false
+     */
+    private boolean _insert(E element) {
         int position = this.dispatch(element);
         if (position <= this.node_size) {
-            if (this.children[position] != null) {
-                this.children[position]._insert(element);
+            if (this.children != null) {
+                BTree<E> child = this.children[position];
+                if (!child._insert(element)) {
+                    return false;
+                }
 
                 // balance
-                if (this.children[position].node_size == this.DIM) {
-                    this.children[position] = this.children[position].split();
-                    this.merge(position);
+                if (child.node_size == this.DIM) {
+                    E middle = child.elements[this.DIM / 2];
+                    this.insertChildren(position, middle, child, child.splitRight());
                 }
             } else {
                 this.insertChildren(position, element, null, null);
             }
+            this.subtree_size++;
+            return true;
         }
+        return false;
     }
 
+    /**
+     * 每个节点都维护了子树的元素个数, 因此为O(1)
+     */
     @Override
     public int size() {
-        int total = this.node_size;
-        for (BTree<E> tree : this.children) {
-            if (tree == null) {
-                break;
+        return this.subtree_size;
+    }
+
+    /**
+     * @return 树的层数, 只有一个节点时为1
+     */
+    public int height() {
+        int height = 1;
+        for (BTree<E> node = this; !node.isLeaf(); node = node.children[0]) {
+            ++height;
+        }
+        return height;
+    }
+
+    /**
+     * 树中严格小于element的元素个数, 即element在升序序列中的位置(element不必在树中)
+     *
+     * @param element 要查找的元素
+     * @return element的排名, 从0开始
+     */
+    public int rank(E element) {
+        int rank = 0;
+        BTree<E> tree = this;
+        while (tree != null) {
+            int position = tree.dispatch(element);
+            boolean found = position > tree.node_size;
+            if (found) {
+                position = position - tree.node_size - 1;
+            }
+            rank += position;
+            for (int i = 0; i < position; ++i) {
+                rank += subtreeSize(tree.child(i));
+            }
+            if (found) {
+                return rank + subtreeSize(tree.child(position));
+            }
+            tree = tree.child(position);
+        }
+        return rank;
+    }
+
+    /**
+     * 返回升序序列中第k个元素(从0开始)
+     *
+     * @param k 元素的排名
+     * @return 第k个元素
+     */
+    public E select(int k) {
+        if (k < 0 || k >= this.subtree_size) {
+            throw new ArrayIndexOutOfBoundsException(k);
+        }
+        BTree<E> tree = this;
+        while (true) {
+            int i = 0;
+            for (; i <= tree.node_size; ++i) {
+                int child_size = subtreeSize(tree.child(i));
+                if (k < child_size) {
+                    break;
+                }
+                k -= child_size;
+                if (k == 0) {
+                    return tree.elements[i];
+                }
+                k--;
             }
-            total += tree.size();
+            tree = tree.child(i);
         }
-        return total;
     }
 
     @Override
@@ -170,99 +356,502 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
         }
     }
 
-    public void _remove(E element) {
+    /**
+     * 子节点children[position]的元素个数少于下限时, 优先向左右兄弟借一个元素, 兄弟都不富余时与兄弟合并.
+     * 借用与合并都不改变当前节点子树的元素个数, 只需要调整参与的两个子节点
+     *
+     * @param position 需要检查的子节点位置
+     */
+    private void rebalance(int position) {
+        if (this.children[position].node_size >= minElementSize()) {
+            return;
+        }
+        if (position != 0 && this.children[position - 1].node_size > minElementSize()) {
+            BTree<E> removed = this.children[position];
+            BTree<E> borrowed = this.children[position - 1];
+            int moved = 1 + subtreeSize(borrowed.child(borrowed.node_size));
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.BTREE_BORROW);
+            }
+            removed.insertChildren(0, this.elements[position - 1], borrowed.child(borrowed.node_size), removed.child(0));
+            this.elements[position - 1] = borrowed.elements[borrowed.node_size - 1];
+            borrowed.removeChildren(borrowed.node_size - 1);
+            removed.subtree_size += moved;
+            borrowed.subtree_size -= moved;
+        } else if (position != this.node_size && this.children[position + 1].node_size > minElementSize()) {
+            BTree<E> removed = this.children[position];
+            BTree<E> borrowed = this.children[position + 1];
+            int moved = 1 + subtreeSize(borrowed.child(0));
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.BTREE_BORROW);
+            }
+            // bugfix: 借入的元素放在被删除节点的末尾, 位置应为removed.node_size而不是父节点的node_size
+            removed.insertChildren(removed.node_size, this.elements[position], removed.child(removed.node_size), borrowed.child(0));
+            this.elements[position] = borrowed.elements[0];
+            borrowed.removeChildren(0);
+            removed.subtree_size += moved;
+            borrowed.subtree_size -= moved;
+        } else {
+            if (Metrics.ENABLED) {
+                Metrics.increment(Metrics.BTREE_MERGE);
+            }
+            if (position == this.node_size) {
+                // 当position == this.size时,要合并节点的左节点在position-1位置,要下沉的element的位置也是position-1
+                position = position - 1;
+            }
+            BTree<E> left = this.children[position];
+            BTree<E> right = this.children[position + 1];
+
+            left.insertChildren(left.node_size, this.elements[position], left.child(left.node_size), right.child(0));
+            for (int i = 0; i < right.node_size; ++i) {
+                left.insertChildren(left.node_size, right.elements[i], left.child(left.node_size), right.child(i + 1));
+            }
+            left.subtree_size += 1 + right.subtree_size;
+            this.removeChildren(position);
+            this.children[position] = left;
+        }
+    }
+
+    /**
+     * @param element 需要删除的元素
+     * @return 元素是否被删除, 元素不存在时返回false
+     */
+    private boolean _remove(E element) {
         int position = this.dispatch(element);
         if (position <= this.node_size) {
-            if (this.children[position] != null) {
-                this.children[position]._remove(element);
-                // balance
-                if (this.children[position].node_size <= (this.DIM - 1) / 2) {
-                    boolean adjusted = this.node_size > minElementSize();
-                    if (this.node_size > minElementSize()) {
-                        if (position != 0 && this.children[position - 1].node_size > minElementSize()) {
-                            BTree<E> removed = this.children[position];
-                            BTree<E> borrowed = this.children[position - 1];
-                            removed.insertChildren(0, this.elements[position - 1], borrowed.children[borrowed.node_size], removed.children[0]);
-                            this.elements[position - 1] = borrowed.elements[borrowed.node_size - 1];
-                            borrowed.removeChildren(borrowed.node_size - 1);
-                        } else if (position != this.node_size && this.children[position + 1].node_size > minElementSize()) {
-                            BTree<E> removed = this.children[position];
-                            BTree<E> borrowed = this.children[position + 1];
-                            removed.insertChildren(this.node_size, this.elements[position], removed.children[removed.node_size], borrowed.children[0]);
-                            this.elements[position] = borrowed.elements[0];
-                            borrowed.removeChildren(0);
-                        } else {
-                            adjusted = false;
-                        }
-                    }
-
-                    if (!adjusted) {
-                        BTree<E> left, right;
-                        if (position == this.node_size) {
-                            // 当position == this.size时,要合并节点的左节点在position-1位置,要下沉的element的位置也是position-1
-                            position = position - 1;
-                        }
-                        left = this.children[position];
-                        right = this.children[position + 1];
-                        element = this.elements[position];
-
-                        left.insertChildren(left.node_size, element, left.children[left.node_size], right.children[0]);
-                        for (int i = 0; i < right.node_size; ++i) {
-                            left.insertChildren(left.node_size, right.elements[i], left.children[left.node_size], right.children[i + 1]);
-                        }
-                        this.removeChildren(position);
-                        this.children[position] = left;
-                    }
-                }
+            if (this.child(position) == null || !this.child(position)._remove(element)) {
+                return false;
             }
+            // balance
+            this.rebalance(position);
         } else {
             position = position - this.node_size - 1;
-            if (this.children[position] != null) {
-                this.elements[position] = this.children[position].max();
-                this.children[position]._remove(this.elements[position]);
+            if (this.child(position) != null) {
+                // 用左子树的最大值替换被删除元素, 再从左子树中删除该最大值, 删除后左子树同样需要平衡
+                this.elements[position] = this.child(position).max();
+                this.child(position)._remove(this.elements[position]);
+                this.rebalance(position);
             } else {
                 this.removeChildren(position);
             }
         }
+        this.subtree_size--;
+        return true;
     }
 
     @Override
     public BTree<E> remove(E element) {
         this._remove(element);
         if (this.node_size == 0) {
-            return this.children[0];
+            return this.child(0);
         } else {
             return this;
         }
     }
 
+    public BTree<E> insertAll(E[] sorted) {
+        return this.insertAll(sorted, 0, sorted.length);
+    }
+
+    /**
+     * 批量插入有序元素. 同一个子树中连续的元素只下降一次, 叶子一次合并多个元素, 分裂在返回时由父节点原地完成;
+     * 已经存在的元素被忽略
+     *
+     * @param sorted 严格升序的元素
+     * @param from   起始下标(包含)
+     * @param to     结束下标(不包含)
+     * @return 新的根节点
+     */
+    public BTree<E> insertAll(E[] sorted, int from, int to) {
+        this.checkSorted(sorted, from, to);
+        BTree<E> root = this;
+        while (from < to) {
+            from = root._insertAll(sorted, from, to, null);
+            if (root.node_size == root.DIM) {
+                root = root.split();
+            }
+        }
+        return root;
+    }
+
+    private void checkSorted(E[] sorted, int from, int to) {
+        if (from < 0 || from > to) {
+            throw new ArrayIndexOutOfBoundsException(from);
+        }
+        if (to > sorted.length) {
+            throw new ArrayIndexOutOfBoundsException(to);
+        }
+        for (int i = from + 1; i < to; ++i) {
+            if (this.compare(sorted[i - 1], sorted[i]) >= 0) {
+                throw new IllegalArgumentException("batch requires strictly ascending input: " + sorted[i]);
+            }
+        }
+    }
+
+    /**
+     * 把sorted[from, to)中小于upper的元素插入当前子树; 当前节点达到DIM个元素时提前返回, 由父节点分裂后再继续
+     *
+     * @param upper 当前子树的上界(不包含), 为null时没有上界
+     * @return 第一个未处理的下标
+     */
+    private int _insertAll(E[] sorted, int from, int to, E upper) {
+        int i = from;
+        if (this.children == null) {
+            while (i < to && this.node_size < this.DIM) {
+                // 本轮合并的元素个数不超过剩余的槽位
+                int end = i;
+                while (end < to && end - i < this.DIM - this.node_size && (upper == null || this.compare(sorted[end], upper) < 0)) {
+                    ++end;
+                }
+                if (end == i) {
+                    break;
+                }
+                this.mergeLeaf(sorted, i, end);
+                i = end;
+            }
+            return i;
+        }
+        while (i < to && this.node_size < this.DIM) {
+            E element = sorted[i];
+            if (upper != null && this.compare(element, upper) >= 0) {
+                break;
+            }
+            int position = this.dispatch(element);
+            if (position > this.node_size) {
+                ++i;
+                continue;
+            }
+            BTree<E> child = this.children[position];
+            int before = child.subtree_size;
+            i = child._insertAll(sorted, i, to, position < this.node_size ? this.elements[position] : upper);
+            this.subtree_size += child.subtree_size - before;
+            if (child.node_size == this.DIM) {
+                E middle = child.elements[this.DIM / 2];
+                this.insertChildren(position, middle, child, child.splitRight());
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 从后向前归并叶子中的元素与sorted[from, end), 调用前需要保证node_size + (end - from) <= DIM.
+     * 已经存在的元素被跳过, 在前部留下的空位最后一次性移除
+     */
+    private void mergeLeaf(E[] sorted, int from, int end) {
+        int last = this.node_size + (end - from) - 1;
+        int a = this.node_size - 1;
+        int b = end - 1;
+        int w = last;
+        while (b >= from) {
+            int compared = a >= 0 ? this.compare(this.elements[a], sorted[b]) : -1;
+            if (compared > 0) {
+                this.elements[w--] = this.elements[a--];
+            } else if (compared < 0) {
+                this.elements[w--] = sorted[b--];
+            } else {
+                --b;
+            }
+        }
+        int gap = w - a;
+        if (gap != 0) {
+            System.arraycopy(this.elements, w + 1, this.elements, a + 1, last - w);
+            Arrays.fill(this.elements, last - gap + 1, last + 1, null);
+        }
+        int inserted = (end - from) - gap;
+        this.node_size += inserted;
+        this.subtree_size += inserted;
+    }
+
+    public BTree<E> removeAll(E[] sorted) {
+        return this.removeAll(sorted, 0, sorted.length);
+    }
+
+    /**
+     * 批量删除有序元素. 同一个子树中连续的元素只下降一次, 叶子一次归并删除多个元素,
+     * 每处理完一棵子树只对它做一次平衡(借用若干个元素或合并); 不存在的元素被忽略
+     *
+     * @param sorted 严格升序的元素
+     * @param from   起始下标(包含)
+     * @param to     结束下标(不包含)
+     * @return 新的根节点, 树为空时返回null
+     */
+    public BTree<E> removeAll(E[] sorted, int from, int to) {
+        this.checkSorted(sorted, from, to);
+        BTree<E> root = this;
+        while (from < to) {
+            from = root._removeAll(sorted, from, to, null);
+            if (root.node_size == 0 && root.children != null) {
+                root = root.children[0];
+            }
+        }
+        if (root.node_size == 0) {
+            return root.child(0);
+        } else {
+            return root;
+        }
+    }
+
+    /**
+     * 从当前子树中删除sorted[from, to)中小于upper的元素. 内部节点的元素个数降为0时无法再平衡子节点,
+     * 提前返回, 由父节点平衡当前节点后再继续
+     *
+     * @param upper 当前子树的上界(不包含), 为null时没有上界
+     * @return 第一个未处理的下标
+     */
+    private int _removeAll(E[] sorted, int from, int to, E upper) {
+        int i = from;
+        if (this.children == null) {
+            int r = 0, w = 0;
+            for (; i < to && (upper == null || this.compare(sorted[i], upper) < 0); ++i) {
+                int compared = -1;
+                while (r < this.node_size && (compared = this.compare(this.elements[r], sorted[i])) < 0) {
+                    this.elements[w++] = this.elements[r++];
+                }
+                if (compared == 0) {
+                    ++r;
+                }
+            }
+            System.arraycopy(this.elements, r, this.elements, w, this.node_size - r);
+            w += this.node_size - r;
+            Arrays.fill(this.elements, w, this.node_size, null);
+            this.subtree_size -= this.node_size - w;
+            this.node_size = w;
+            return i;
+        }
+        while (i < to && this.node_size != 0) {
+            E element = sorted[i];
+            if (upper != null && this.compare(element, upper) >= 0) {
+                break;
+            }
+            int position = this.dispatch(element);
+            if (position > this.node_size) {
+                // 用左子树的最大值替换被删除元素; 左子树中比它小的元素已经处理过了
+                position = position - this.node_size - 1;
+                this.elements[position] = this.children[position].max();
+                this.children[position]._remove(this.elements[position]);
+                this.subtree_size--;
+                ++i;
+            } else {
+                BTree<E> child = this.children[position];
+                int before = child.subtree_size;
+                i = child._removeAll(sorted, i, to, position < this.node_size ? this.elements[position] : upper);
+                this.subtree_size -= before - child.subtree_size;
+            }
+            this.fix(position);
+        }
+        return i;
+    }
+
+    /**
+     * 子节点可能缺少多个元素: 反复向兄弟借用, 直到满足下限或与兄弟合并
+     */
+    private void fix(int position) {
+        while (this.children[position].node_size < minElementSize()) {
+            int before = this.node_size;
+            this.rebalance(position);
+            if (this.node_size != before) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 由有序序列自底向上批量构建BTree, 每个节点只创建一次, 不发生分裂, 总代价为O(n)
+     *
+     * @param sorted      严格升序的元素序列
+     * @param DIM         树的阶
+     * @param fill_factor 节点的目标填充率, 取值范围[0, 1]; 实际填充会被限制在节点个数的上下限之间
+     * @return 新的树
+     */
+    public static <E extends Comparable<E>> BTree<E> bulkLoad(List<E> sorted, int DIM, double fill_factor) {
+        return bulkLoad(sorted.iterator(), sorted.size(), DIM, fill_factor);
+    }
+
+    /**
+     * @param sorted      严格升序的元素序列, 恰好会被消费size个元素
+     * @param size        元素个数
+     * @param DIM         树的阶
+     * @param fill_factor 节点的目标填充率, 取值范围[0, 1]
+     * @return 新的树
+     * @see #bulkLoad(List, int, double)
+     */
+    public static <E extends Comparable<E>> BTree<E> bulkLoad(Iterator<E> sorted, int size, int DIM, double fill_factor) {
+        return bulkLoad(sorted, size, DIM, fill_factor, null);
+    }
+
+    /**
+     * @param sorted      按comparator严格升序的元素序列, 恰好会被消费size个元素
+     * @param size        元素个数
+     * @param DIM         树的阶
+     * @param fill_factor 节点的目标填充率, 取值范围[0, 1]
+     * @param comparator  元素的比较器, 为null时使用自然顺序
+     * @return 新的树
+     * @see #bulkLoad(List, int, double)
+     */
+    public static <E extends Comparable<E>> BTree<E> bulkLoad(Iterator<E> sorted, int size, int DIM, double fill_factor, Comparator<? super E> comparator) {
+        if (DIM < 3) {
+            throw new IllegalArgumentException("DIM: " + DIM);
+        }
+        if (fill_factor < 0 || fill_factor > 1) {
+            throw new IllegalArgumentException("fill_factor: " + fill_factor);
+        }
+        BulkLoader<E> loader = new BulkLoader<>(sorted, DIM, fill_factor, comparator);
+        return size == 0 ? new BTree<E>(DIM, comparator) : loader.build(size, loader.height(size), true);
+    }
+
+    /**
+     * 先根据元素个数计算树高, 再按每一层子树的容量把元素均匀地划分给各个子节点;
+     * 子树按中序依次构建, 因此只需要顺序读取一遍输入, 叶子先于父节点完成
+     */
+    private static final class BulkLoader<E extends Comparable<E>> {
+        private final Iterator<E> sorted;
+        private final int DIM;
+        private final Comparator<? super E> comparator;
+        // 每个节点的目标元素个数, 以及非根节点的元素个数下限
+        private final int target;
+        private final int min;
+        private E previous;
+
+        BulkLoader(Iterator<E> sorted, int DIM, double fill_factor, Comparator<? super E> comparator) {
+            this.sorted = sorted;
+            this.DIM = DIM;
+            this.comparator = comparator;
+            this.min = (DIM - 1) / 2;
+            this.target = Math.max(Math.max(this.min, 1), Math.min(DIM - 1, (int) Math.round(fill_factor * (DIM - 1))));
+        }
+
+        /**
+         * 每个节点都有keys个元素时, 高度为height(叶子为0)的子树包含的元素个数, 超过int范围时截断
+         */
+        private static long capacity(int keys, int height) {
+            long total = 1;
+            for (int i = 0; i <= height && total <= Integer.MAX_VALUE; ++i) {
+                total *= keys + 1;
+            }
+            return total - 1;
+        }
+
+        int height(int size) {
+            int height = 0;
+            while (capacity(this.target, height) < size) {
+                ++height;
+            }
+            // 根节点至少需要两个满足下限的子树
+            while (height > 0 && size + 1 < 2 * (capacity(this.min, height - 1) + 1)) {
+                --height;
+            }
+            return height;
+        }
+
+        private E next() {
+            E element = this.sorted.next();
+            if (this.previous != null && (this.comparator == null ? this.previous.compareTo(element) : this.comparator.compare(this.previous, element)) >= 0) {
+                throw new IllegalArgumentException("bulkLoad requires strictly ascending input: " + element);
+            }
+            this.previous = element;
+            return element;
+        }
+
+        BTree<E> build(int size, int height, boolean root) {
+            BTree<E> tree = new BTree<E>(this.DIM, this.comparator, height == 0);
+            tree.subtree_size = size;
+            if (height == 0) {
+                for (int i = 0; i < size; ++i) {
+                    tree.elements[i] = this.next();
+                }
+                tree.node_size = size;
+                return tree;
+            }
+
+            // 子节点个数必须让每棵子树的元素个数落在[下限容量, 上限容量]之间, 在此范围内尽量接近目标填充率
+            long lower = Math.max(root ? 2 : this.min + 1, ceilDivide(size + 1, capacity(this.DIM - 1, height - 1) + 1));
+            long upper = Math.min(this.DIM, (size + 1) / (capacity(this.min, height - 1) + 1));
+            if (lower > upper) {
+                throw new IllegalStateException("cannot pack " + size + " elements at height " + height);
+            }
+            int count = (int) Math.min(upper, Math.max(lower, ceilDivide(size + 1, capacity(this.target, height - 1) + 1)));
+
+            int total = size - (count - 1);
+            for (int i = 0; i < count; ++i) {
+                int child_size = total / count + (i < total % count ? 1 : 0);
+                tree.children[i] = this.build(child_size, height - 1, false);
+                if (i != count - 1) {
+                    tree.elements[i] = this.next();
+                }
+            }
+            tree.node_size = count - 1;
+            return tree;
+        }
+
+        private static long ceilDivide(long dividend, long divisor) {
+            return (dividend + divisor - 1) / divisor;
+        }
+    }
+
     @Override
     public void travel(Visitor<E> visitor) {
         for (int i = 0; i < this.node_size; ++i) {
-            if (this.children[i] != null) {
-                this.children[i].travel(visitor);
+            if (this.child(i) != null) {
+                this.child(i).travel(visitor);
             }
             visitor.visit(this.elements[i]);
         }
-        if (this.children[this.node_size] != null) {
-            this.children[this.node_size].travel(visitor);
+        if (this.child(this.node_size) != null) {
+            this.child(this.node_size).travel(visitor);
         }
     }
 
     public void travelNode(Visitor<BTree<E>> visitor) {
         for (int i = 0; i < this.node_size; ++i) {
-            if (this.children[i] != null) {
-                this.children[i].travelNode(visitor);
+            if (this.child(i) != null) {
+                this.child(i).travelNode(visitor);
             }
             visitor.visit(this);
         }
-        if (this.children[this.node_size] != null) {
-            this.children[this.node_size].travelNode(visitor);
+        if (this.child(this.node_size) != null) {
+            this.child(this.node_size).travelNode(visitor);
+        }
+    }
+
+    /**
+     * 统计树的结构信息, 需要遍历所有节点, 为O(节点数).
+     * 内存估计按64位JVM开启压缩指针计算: 节点对象40字节, 数组为16字节的头加每个引用4字节(按8字节对齐), 叶子节点没有children数组
+     *
+     * @return 当前树的结构快照
+     */
+    public TreeStats stats() {
+        long[] fill_distribution = new long[this.DIM];
+        int[] counts = new int[2];
+        this.countNodes(fill_distribution, counts);
+        int leaf_count = counts[0], internal_count = counts[1];
+        long leaf_bytes = 40 + align(16 + 4L * this.DIM);
+        long internal_bytes = leaf_bytes + align(16 + 4L * (this.DIM + 1));
+        return new TreeStats(this.height(), leaf_count + internal_count, leaf_count, this.subtree_size, fill_distribution, this.DIM - 1,
+                leaf_count * leaf_bytes + internal_count * internal_bytes);
+    }
+
+    /**
+     * @param counts counts[0]累计叶子节点个数, counts[1]累计内部节点个数
+     */
+    private void countNodes(long[] fill_distribution, int[] counts) {
+        fill_distribution[this.node_size]++;
+        if (this.children == null) {
+            counts[0]++;
+        } else {
+            counts[1]++;
+            for (int i = 0; i <= this.node_size; ++i) {
+                this.children[i].countNodes(fill_distribution, counts);
+            }
         }
     }
 
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
     @Override
     public List<E> asList() {
+        // 使用带尾指针的迭代链表,追加元素为O(1),且不会因为元素过多而栈溢出
         List<E> list = new LinkedList<>();
         this.travel(element -> list.insert(element, list.size()));
         return list;
@@ -271,10 +860,17 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
 
     @Override
     public E find(E element) {
+        if (Metrics.ENABLED) {
+            Metrics.increment(Metrics.BTREE_FIND);
+        }
+        return this._find(element);
+    }
+
+    private E _find(E element) {
         int position = this.dispatch(element);
         if (position <= this.node_size) {
-            if (this.children[position] != null) {
-                return this.children[position].find(element);
+            if (this.child(position) != null) {
+                return this.child(position)._find(element);
             } else {
                 return null;
             }
@@ -283,53 +879,173 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
         }
     }
 
+    /**
+     * 沿着根到叶子的路径查找element的前驱或后继
+     *
+     * @param element   要查找的元素
+     * @param less      true表示查找不大于(或小于)element的最大元素, false表示查找不小于(或大于)element的最小元素
+     * @param inclusive 是否可以返回与element相等的元素
+     * @return 满足条件的元素, 不存在时返回null
+     */
+    private E bound(E element, boolean less, boolean inclusive) {
+        E candidate = null;
+        BTree<E> tree = this;
+        while (tree != null) {
+            int position = tree.dispatch(element);
+            if (position > tree.node_size) {
+                position = position - tree.node_size - 1;
+                if (inclusive) {
+                    return tree.elements[position];
+                }
+                // 严格小于时, 答案在左子树或更早的候选中; 严格大于时, 答案在右子树或右边的元素中
+                if (!less) {
+                    position++;
+                }
+            }
+            if (less) {
+                if (position > 0) {
+                    candidate = tree.elements[position - 1];
+                }
+            } else if (position < tree.node_size) {
+                candidate = tree.elements[position];
+            }
+            tree = tree.child(position);
+        }
+        return candidate;
+    }
+
+    /**
+     * @return 不大于element的最大元素, 不存在时返回null
+     */
+    public E floor(E element) {
+        return this.bound(element, true, true);
+    }
+
+    /**
+     * @return 不小于element的最小元素, 不存在时返回null
+     */
+    public E ceiling(E element) {
+        return this.bound(element, false, true);
+    }
+
+    /**
+     * @return 严格小于element的最大元素, 不存在时返回null
+     */
+    public E lower(E element) {
+        return this.bound(element, true, false);
+    }
+
+    /**
+     * @return 严格大于element的最小元素, 不存在时返回null
+     */
+    public E higher(E element) {
+        return this.bound(element, false, false);
+    }
+
+    /**
+     * 按升序惰性遍历区间内的元素. 迭代器创建时只做一次根到叶子的下降, 之后每个元素均摊O(1), 总代价为O(log n + k)
+     *
+     * @param from           区间下界, 为null时表示没有下界
+     * @param from_inclusive 是否包含下界
+     * @param to             区间上界, 为null时表示没有上界
+     * @param to_inclusive   是否包含上界
+     * @return 区间迭代器
+     */
+    public Iterator<E> range(E from, boolean from_inclusive, E to, boolean to_inclusive) {
+        return new BTreeIterator(this, from, from_inclusive, to, to_inclusive);
+    }
+
     class BTreeIterator implements Iterator<E> {
-        // 第一个参数表示当前遍历到的Node,第二个参数表示当前栈顶元素遍历到的位置,从0开始计数
-        private final Stack<Pair<BTree<E>, Integer>> stack;
+        // 从根到当前节点的路径, 以及每层当前遍历到的位置(从0开始计数); 数组长度为树高, 迭代过程中不再分配对象
+        private final BTree<E>[] nodes;
+        private final int[] cursors;
+        // 栈顶下标, 为-1时栈为空
+        private int depth;
+        // 区间上界, 为null时遍历到最后一个元素
+        private final E to;
+        private final boolean to_inclusive;
 
         public BTreeIterator(BTree<E> tree) {
-            this.stack = new Stack<>(new LinkedList<>());
-            stack.push(new Pair<>(tree, 0));
+            this(tree, null, true, null, true);
+        }
 
-            Pair<BTree<E>, Integer> current = this.stack.top();
+        /**
+         * 从根节点开始下降, 在每一层把第一个不小于(或大于)from的位置压入栈中, 栈顶即为第一个要输出的元素
+         */
+        @SuppressWarnings("unchecked")
+        public BTreeIterator(BTree<E> tree, E from, boolean from_inclusive, E to, boolean to_inclusive) {
+            int height = tree.height();
+            this.nodes = new BTree[height];
+            this.cursors = new int[height];
+            this.depth = -1;
+            this.to = to;
+            this.to_inclusive = to_inclusive;
 
-            while (current.first.children[current.second] != null) {
-                this.stack.push(new Pair<>(current.first.children[current.second], 0));
-                current = this.stack.top();
+            BTree<E> current = tree;
+            while (current != null) {
+                int position = from == null ? 0 : current.dispatch(from);
+                if (position > current.node_size) {
+                    position = position - current.node_size - 1;
+                    if (from_inclusive) {
+                        // 命中的元素就是第一个要输出的元素, 它的左子树都比from小, 不需要继续下降
+                        this.push(current, position);
+                        break;
+                    }
+                    position++;
+                }
+                this.push(current, position);
+                current = current.child(position);
+            }
+            this.skipFinished();
+        }
+
+        private void push(BTree<E> node, int position) {
+            this.nodes[++this.depth] = node;
+            this.cursors[this.depth] = position;
+        }
+
+        /**
+         * 弹出所有已经遍历完成的节点
+         */
+        private void skipFinished() {
+            while (this.depth >= 0 && this.cursors[this.depth] >= this.nodes[this.depth].node_size) {
+                this.nodes[this.depth--] = null;
             }
         }
 
         /**
-         * 如果当前栈顶元素的node_size为0,说明是个叶子节点,返回false
          * 如果当前栈无元素,说明已经遍历完成,返回false
+         * 如果下一个元素超出了区间上界,返回false
          * @return 请见说明
          */
         @Override
         public boolean hasNext() {
-            if (this.stack.isEmpty()) {
+            if (this.depth < 0) {
                 return false;
-            } else {
-                Pair<BTree<E>, Integer> current = this.stack.top();
-                return current.second < current.first.node_size;
             }
+            if (this.to == null) {
+                return true;
+            }
+            BTree<E> node = this.nodes[this.depth];
+            int compared = node.compare(node.elements[this.cursors[this.depth]], this.to);
+            return compared < 0 || (compared == 0 && this.to_inclusive);
         }
 
         @Override
         public E next() {
-            Pair<BTree<E>, Integer> current = this.stack.top();
-            E element = current.first.elements[current.second++];
-
-            while (current.first.children[current.second] != null) {
-                this.stack.push(new Pair<>(current.first.children[current.second], 0));
-                current = this.stack.top();
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
             }
+            BTree<E> current = this.nodes[this.depth];
+            E element = current.elements[this.cursors[this.depth]++];
 
-            while (!this.stack.isEmpty() && current.second >= current.first.node_size) {
-                this.stack.pop();
-                if (!this.stack.isEmpty()) {
-                    current = this.stack.top();
-                }
+            BTree<E> child = current.child(this.cursors[this.depth]);
+            while (child != null) {
+                this.push(child, 0);
+                child = child.child(0);
             }
+
+            this.skipFinished();
             return element;
         }
     }
@@ -338,4 +1054,118 @@ public class BTree<E extends Comparable<E>> implements Tree<E> {
     public Iterator<E> iterator() {
         return new BTreeIterator(this);
     }
+
+    /**
+     * 按子树切分, 切分得到的每一部分的大小都是精确的, 适合用parallelStream()在多个核上处理
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new BTreeSpliterator<>(this, 0, 2 * this.node_size + 1);
+    }
+
+    /**
+     * 节点的中序序列可以看作2 * node_size + 1个槽位: 偶数槽位2i为子树children[i], 奇数槽位2i + 1为元素elements[i].
+     * 一个BTreeSpliterator负责某个节点的槽位区间[low, high), 切分时把槽位对半分开, 只剩一棵子树时下降到这棵子树中继续切分,
+     * 因此先在根节点的子树边界上切分, 再递归到下层. 子树的元素个数直接取subtree_size
+     */
+    static final class BTreeSpliterator<E extends Comparable<E>> implements Spliterator<E> {
+        private BTree<E> node;
+        private int low;
+        private int high;
+        private long remaining;
+        // 正在逐个输出的子树, 只在tryAdvance中使用
+        private Iterator<E> current;
+
+        BTreeSpliterator(BTree<E> node, int low, int high) {
+            this.node = node;
+            this.low = low;
+            this.high = high;
+            this.remaining = 0;
+            for (int slot = low; slot < high; ++slot) {
+                this.remaining += (slot & 1) == 1 ? 1 : subtreeSize(node.child(slot >> 1));
+            }
+            this.current = null;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            if (this.current != null) {
+                return null;
+            }
+            while (this.high - this.low == 1 && (this.low & 1) == 0 && this.node.child(this.low >> 1) != null) {
+                this.node = this.node.child(this.low >> 1);
+                this.low = 0;
+                this.high = 2 * this.node.node_size + 1;
+            }
+            if (this.high - this.low < 2) {
+                return null;
+            }
+            int middle = (this.low + this.high) >>> 1;
+            BTreeSpliterator<E> prefix = new BTreeSpliterator<>(this.node, this.low, middle);
+            this.low = middle;
+            this.remaining -= prefix.remaining;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            while (true) {
+                if (this.current != null) {
+                    if (this.current.hasNext()) {
+                        this.remaining--;
+                        action.accept(this.current.next());
+                        return true;
+                    }
+                    this.current = null;
+                }
+                if (this.low >= this.high) {
+                    return false;
+                }
+                int slot = this.low++;
+                if ((slot & 1) == 1) {
+                    this.remaining--;
+                    action.accept(this.node.elements[slot >> 1]);
+                    return true;
+                }
+                if (this.node.child(slot >> 1) != null) {
+                    this.current = this.node.child(slot >> 1).iterator();
+                }
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (this.current != null) {
+                this.current.forEachRemaining(action);
+                this.current = null;
+            }
+            for (int slot = this.low; slot < this.high; ++slot) {
+                if ((slot & 1) == 1) {
+                    action.accept(this.node.elements[slot >> 1]);
+                } else if (this.node.child(slot >> 1) != null) {
+                    this.node.child(slot >> 1).travel(action::accept);
+                }
+            }
+            this.low = this.high;
+            this.remaining = 0;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL;
+        }
+
+        /**
+         * 按元素的自然顺序排序时返回null
+         */
+        @Override
+        public Comparator<? super E> getComparator() {
+            return this.node.comparator;
+        }
+    }
 }
\ No newline at end of file
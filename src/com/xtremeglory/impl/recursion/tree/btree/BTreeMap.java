@@ -0,0 +1,551 @@
+package com.xtremeglory.impl.recursion.tree.btree;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 键值对形式的BTree, 节点规则与BTree一致.
+ * <p>
+ * 每个节点在keys旁边保存一个平行的values数组, 值直接存放在节点中, 不需要把键和值包装成一个Pair对象,
+ * 每个条目少一个对象头和一次指针跳转. 叶子的children为null.
+ * <p>
+ * get, put, remove与computeIfAbsent都只从根向下走一遍, 分裂与平衡在递归返回时完成.
+ * 遍历使用cursor()或forEach, 不会为每个条目分配对象.
+ * 值可以为null, 此时get与remove的返回值无法区分"值为null"与"键不存在", 需要使用containsKey.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class BTreeMap<K extends Comparable<K>, V> {
+    static final class Node<K, V> {
+        int node_size;
+        final Object[] keys;
+        final Object[] values;
+        Node<K, V>[] children;
+
+        Node(int DIM, boolean leaf) {
+            this.node_size = 0;
+            this.keys = new Object[DIM + 1];
+            this.values = new Object[DIM + 1];
+            this.children = leaf ? null : newChildren(DIM);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K, V> Node<K, V>[] newChildren(int DIM) {
+            return new Node[DIM + 2];
+        }
+
+        boolean isLeaf() {
+            return this.children == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(int index) {
+            return (K) this.keys[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        V value(int index) {
+            return (V) this.values[index];
+        }
+
+        void insert(int position, Object key, Object value, Node<K, V> left, Node<K, V> right) {
+            for (int i = this.node_size; i > position; --i) {
+                this.keys[i] = this.keys[i - 1];
+                this.values[i] = this.values[i - 1];
+            }
+            this.keys[position] = key;
+            this.values[position] = value;
+            if (this.children != null) {
+                for (int i = this.node_size; i > position; --i) {
+                    this.children[i + 1] = this.children[i];
+                }
+                this.children[position] = left;
+                this.children[position + 1] = right;
+            }
+            this.node_size++;
+        }
+
+        void remove(int position) {
+            for (int i = position; i < this.node_size - 1; ++i) {
+                this.keys[i] = this.keys[i + 1];
+                this.values[i] = this.values[i + 1];
+            }
+            this.keys[this.node_size - 1] = null;
+            this.values[this.node_size - 1] = null;
+            if (this.children != null) {
+                for (int i = position; i < this.node_size - 1; ++i) {
+                    this.children[i] = this.children[i + 1];
+                }
+                if (position != this.node_size - 1) {
+                    this.children[this.node_size - 1] = this.children[this.node_size];
+                }
+                this.children[this.node_size] = null;
+            }
+            this.node_size--;
+        }
+
+        /**
+         * @return 由[begin, end)区间的条目以及它们两侧的子树组成的新节点
+         */
+        Node<K, V> copy(int DIM, int begin, int end) {
+            Node<K, V> node = new Node<>(DIM, this.isLeaf());
+            System.arraycopy(this.keys, begin, node.keys, 0, end - begin);
+            System.arraycopy(this.values, begin, node.values, 0, end - begin);
+            if (this.children != null) {
+                System.arraycopy(this.children, begin, node.children, 0, end - begin + 1);
+            }
+            node.node_size = end - begin;
+            return node;
+        }
+    }
+
+    protected final int DIM;
+    protected final Comparator<? super K> comparator;
+    private Node<K, V> root;
+    private int size;
+    // 结构修改(插入新键,删除)的次数,用于游标的快速失败检查
+    private int mod_count;
+
+    public BTreeMap(int DIM) {
+        this(DIM, null);
+    }
+
+    /**
+     * @param DIM        树的阶
+     * @param comparator 键的比较器, 为null时使用自然顺序
+     */
+    public BTreeMap(int DIM, Comparator<? super K> comparator) {
+        if (DIM < 3) {
+            throw new IllegalArgumentException("DIM: " + DIM);
+        }
+        this.DIM = DIM;
+        this.comparator = comparator;
+        this.root = new Node<>(DIM, true);
+        this.size = 0;
+        this.mod_count = 0;
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    public Comparator<? super K> getComparator() {
+        return this.comparator;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return 树的层数, 只有一个节点时为1
+     */
+    public int height() {
+        int height = 1;
+        for (Node<K, V> node = this.root; !node.isLeaf(); node = node.children[0]) {
+            ++height;
+        }
+        return height;
+    }
+
+    private int compare(K a, K b) {
+        return this.comparator == null ? a.compareTo(b) : this.comparator.compare(a, b);
+    }
+
+    /**
+     * 与BTree.dispatch相同: 宽节点使用二分查找, 窄节点使用顺序查找
+     *
+     * @return 当key在节点中存在时, 返回size + 下标 + 1; 否则, 返回需要搜索的位置
+     */
+    private int dispatch(Node<K, V> node, K key) {
+        if (node.node_size <= BTree.LINEAR_DISPATCH_THRESHOLD) {
+            for (int i = 0; i < node.node_size; ++i) {
+                int compared = this.compare(key, node.key(i));
+                if (compared <= 0) {
+                    return compared < 0 ? i : node.node_size + i + 1;
+                }
+            }
+            return node.node_size;
+        }
+        int low = 0, high = node.node_size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = this.compare(key, node.key(middle));
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return node.node_size + middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = this.root;
+        while (true) {
+            int position = this.dispatch(node, key);
+            if (position > node.node_size) {
+                return node.value(position - node.node_size - 1);
+            } else if (node.isLeaf()) {
+                return null;
+            }
+            node = node.children[position];
+        }
+    }
+
+    public boolean containsKey(K key) {
+        Node<K, V> node = this.root;
+        while (true) {
+            int position = this.dispatch(node, key);
+            if (position > node.node_size) {
+                return true;
+            } else if (node.isLeaf()) {
+                return false;
+            }
+            node = node.children[position];
+        }
+    }
+
+    public K firstKey() {
+        if (this.size == 0) {
+            return null;
+        }
+        Node<K, V> node = this.root;
+        while (!node.isLeaf()) {
+            node = node.children[0];
+        }
+        return node.key(0);
+    }
+
+    public K lastKey() {
+        if (this.size == 0) {
+            return null;
+        }
+        Node<K, V> node = this.root;
+        while (!node.isLeaf()) {
+            node = node.children[node.node_size];
+        }
+        return node.key(node.node_size - 1);
+    }
+
+    /**
+     * 把节点对半分开, 返回以中间条目为唯一条目的新节点
+     */
+    private Node<K, V> split(Node<K, V> node) {
+        int middle = this.DIM / 2;
+        Node<K, V> root = new Node<>(this.DIM, false);
+        root.insert(0, node.keys[middle], node.values[middle], node.copy(this.DIM, 0, middle), node.copy(this.DIM, middle + 1, this.DIM));
+        return root;
+    }
+
+    /**
+     * 子节点在递归中达到DIM个条目时, 在父节点中分裂它
+     */
+    private void splitChild(Node<K, V> node, int position) {
+        Node<K, V> child = node.children[position];
+        if (child.node_size == this.DIM) {
+            Node<K, V> split = this.split(child);
+            node.insert(position, split.keys[0], split.values[0], split.children[0], split.children[1]);
+        }
+    }
+
+    private void splitRoot() {
+        if (this.root.node_size == this.DIM) {
+            this.root = this.split(this.root);
+        }
+    }
+
+    /**
+     * 在叶子中插入新条目
+     */
+    private void insertLeaf(Node<K, V> leaf, int position, K key, V value) {
+        leaf.insert(position, key, value, null, null);
+        this.size++;
+        this.mod_count++;
+    }
+
+    /**
+     * @return 键原来对应的值, 键不存在时返回null
+     */
+    public V put(K key, V value) {
+        V previous = this.put(this.root, key, value);
+        this.splitRoot();
+        return previous;
+    }
+
+    private V put(Node<K, V> node, K key, V value) {
+        int position = this.dispatch(node, key);
+        if (position > node.node_size) {
+            position = position - node.node_size - 1;
+            V previous = node.value(position);
+            node.values[position] = value;
+            return previous;
+        } else if (node.isLeaf()) {
+            this.insertLeaf(node, position, key, value);
+            return null;
+        }
+        V previous = this.put(node.children[position], key, value);
+        this.splitChild(node, position);
+        return previous;
+    }
+
+    /**
+     * 键不存在时用mapping计算值并插入; mapping返回null时不插入
+     *
+     * @return 键对应的值(原有的或新计算的)
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        V value = this.computeIfAbsent(this.root, key, mapping);
+        this.splitRoot();
+        return value;
+    }
+
+    private V computeIfAbsent(Node<K, V> node, K key, Function<? super K, ? extends V> mapping) {
+        int position = this.dispatch(node, key);
+        if (position > node.node_size) {
+            return node.value(position - node.node_size - 1);
+        } else if (node.isLeaf()) {
+            int expected_mod_count = this.mod_count;
+            V value = mapping.apply(key);
+            if (this.mod_count != expected_mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (value != null) {
+                this.insertLeaf(node, position, key, value);
+            }
+            return value;
+        }
+        V value = this.computeIfAbsent(node.children[position], key, mapping);
+        this.splitChild(node, position);
+        return value;
+    }
+
+    /**
+     * @return 被删除的值, 键不存在时返回null
+     */
+    public V remove(K key) {
+        V removed = this.remove(this.root, key);
+        if (this.root.node_size == 0 && !this.root.isLeaf()) {
+            this.root = this.root.children[0];
+        }
+        return removed;
+    }
+
+    private V remove(Node<K, V> node, K key) {
+        int position = this.dispatch(node, key);
+        if (position <= node.node_size) {
+            if (node.isLeaf()) {
+                return null;
+            }
+            V removed = this.remove(node.children[position], key);
+            this.rebalance(node, position);
+            return removed;
+        }
+        position = position - node.node_size - 1;
+        V removed = node.value(position);
+        if (node.isLeaf()) {
+            node.remove(position);
+        } else {
+            // 用左子树的最大条目替换被删除条目, 沿最右侧路径下降一次, 不需要再比较
+            this.removeLast(node.children[position], node, position);
+            this.rebalance(node, position);
+        }
+        this.size--;
+        this.mod_count++;
+        return removed;
+    }
+
+    /**
+     * 把子树node的最后一个条目移动到target的position处
+     */
+    private void removeLast(Node<K, V> node, Node<K, V> target, int position) {
+        if (node.isLeaf()) {
+            target.keys[position] = node.keys[node.node_size - 1];
+            target.values[position] = node.values[node.node_size - 1];
+            node.remove(node.node_size - 1);
+        } else {
+            this.removeLast(node.children[node.node_size], target, position);
+            this.rebalance(node, node.node_size);
+        }
+    }
+
+    /**
+     * 子节点children[position]的条目个数少于下限时, 优先向左右兄弟借一个条目, 兄弟都不富余时与兄弟合并
+     */
+    private void rebalance(Node<K, V> node, int position) {
+        if (node.children[position].node_size >= this.minElementSize()) {
+            return;
+        }
+        if (position != 0 && node.children[position - 1].node_size > this.minElementSize()) {
+            Node<K, V> removed = node.children[position];
+            Node<K, V> borrowed = node.children[position - 1];
+            int last = borrowed.node_size - 1;
+            removed.insert(0, node.keys[position - 1], node.values[position - 1], borrowed.isLeaf() ? null : borrowed.children[last + 1], removed.isLeaf() ? null : removed.children[0]);
+            node.keys[position - 1] = borrowed.keys[last];
+            node.values[position - 1] = borrowed.values[last];
+            borrowed.remove(last);
+        } else if (position != node.node_size && node.children[position + 1].node_size > this.minElementSize()) {
+            Node<K, V> removed = node.children[position];
+            Node<K, V> borrowed = node.children[position + 1];
+            removed.insert(removed.node_size, node.keys[position], node.values[position], removed.isLeaf() ? null : removed.children[removed.node_size], borrowed.isLeaf() ? null : borrowed.children[0]);
+            node.keys[position] = borrowed.keys[0];
+            node.values[position] = borrowed.values[0];
+            borrowed.remove(0);
+        } else {
+            if (position == node.node_size) {
+                position = position - 1;
+            }
+            Node<K, V> left = node.children[position];
+            Node<K, V> right = node.children[position + 1];
+
+            left.insert(left.node_size, node.keys[position], node.values[position], left.isLeaf() ? null : left.children[left.node_size], right.isLeaf() ? null : right.children[0]);
+            for (int i = 0; i < right.node_size; ++i) {
+                left.insert(left.node_size, right.keys[i], right.values[i], left.isLeaf() ? null : left.children[left.node_size], right.isLeaf() ? null : right.children[i + 1]);
+            }
+            node.remove(position);
+            node.children[position] = left;
+        }
+    }
+
+    /**
+     * 按键的升序访问所有条目
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (this.size != 0) {
+            this.forEach(this.root, action);
+        }
+    }
+
+    private void forEach(Node<K, V> node, BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < node.node_size; ++i) {
+            if (!node.isLeaf()) {
+                this.forEach(node.children[i], action);
+            }
+            action.accept(node.key(i), node.value(i));
+        }
+        if (!node.isLeaf()) {
+            this.forEach(node.children[node.node_size], action);
+        }
+    }
+
+    /**
+     * 游标只在创建时按树高分配一次路径数组, 之后每一步都不分配对象
+     *
+     * @return 位于第一个条目之前的游标
+     */
+    public EntryCursor cursor() {
+        return new EntryCursor();
+    }
+
+    /**
+     * 按键的升序遍历条目. 用法:
+     * <pre>
+     * EntryCursor cursor = map.cursor();
+     * while (cursor.next()) {
+     *     use(cursor.getKey(), cursor.getValue());
+     * }
+     * </pre>
+     * 游标是快速失败的: 创建游标后如果插入了新键或删除了条目, next()会抛出ConcurrentModificationException; setValue不是结构修改
+     */
+    public class EntryCursor {
+        // 从根到当前节点的路径, 以及每层下一个要访问的位置
+        private final Node<K, V>[] nodes;
+        private final int[] cursors;
+        private int depth;
+        private Node<K, V> node;
+        private int index;
+        private final int expected_mod_count;
+
+        @SuppressWarnings("unchecked")
+        EntryCursor() {
+            int height = height();
+            this.nodes = new Node[height];
+            this.cursors = new int[height];
+            this.depth = -1;
+            this.node = null;
+            this.expected_mod_count = mod_count;
+            this.pushLeftmost(root);
+            this.skipFinished();
+        }
+
+        private void pushLeftmost(Node<K, V> node) {
+            while (true) {
+                this.nodes[++this.depth] = node;
+                this.cursors[this.depth] = 0;
+                if (node.isLeaf()) {
+                    return;
+                }
+                node = node.children[0];
+            }
+        }
+
+        private void skipFinished() {
+            while (this.depth >= 0 && this.cursors[this.depth] >= this.nodes[this.depth].node_size) {
+                this.nodes[this.depth--] = null;
+            }
+        }
+
+        /**
+         * 移动到下一个条目
+         *
+         * @return 是否还有条目
+         */
+        public boolean next() {
+            if (this.expected_mod_count != mod_count) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.depth < 0) {
+                this.node = null;
+                return false;
+            }
+            this.node = this.nodes[this.depth];
+            this.index = this.cursors[this.depth]++;
+            if (!this.node.isLeaf()) {
+                this.pushLeftmost(this.node.children[this.index + 1]);
+            }
+            this.skipFinished();
+            return true;
+        }
+
+        private void check() {
+            if (this.node == null) {
+                throw new IllegalStateException();
+            }
+        }
+
+        public K getKey() {
+            this.check();
+            return this.node.key(this.index);
+        }
+
+        public V getValue() {
+            this.check();
+            return this.node.value(this.index);
+        }
+
+        /**
+         * 替换当前条目的值
+         *
+         * @return 原来的值
+         */
+        public V setValue(V value) {
+            this.check();
+            V previous = this.node.value(this.index);
+            this.node.values[this.index] = value;
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.xtremeglory.impl.recursion.tree.btree;
+
+import com.xtremeglory.impl.Visitor;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * BTree对字节串关键字的特化版本, 算法与IntBTree完全一致, 关键字按无符号字节的字典序排列.
+ * 复合关键字先用ByteKeys编码为保序的字节串, 之后每次比较都只是字节比较, 不再调用compareTo, 也不分配对象.
+ * <p>
+ * 每个关键字的前8个字节另外以long的形式保存在heads中, 节点内查找时先比较这个long, 绝大多数情况下一次无符号比较就能得出结果,
+ * 只有前8个字节相同时才会比较剩余的字节.
+ * <p>
+ * 开启前缀压缩后, 每个节点只保存一份所有关键字的公共前缀, 关键字只保存前缀之后的部分.
+ * 查找时先把待查关键字与公共前缀比较一次, 再只比较后缀; 分裂产生的新节点会重新计算更长的公共前缀.
+ * 关键字插入后不能再修改, travel得到的字节串也不能修改.
+ */
+public class ByteKeyBTree {
+    private static final byte[] EMPTY = new byte[0];
+
+    protected final int DIM;
+    private final boolean prefix_compressed;
+    private int node_size;
+    // 节点中所有关键字的公共前缀, 不压缩时总是空串
+    private byte[] prefix;
+    private final byte[][] suffixes;
+    // 每个后缀的前8个字节
+    private final long[] heads;
+    protected final ByteKeyBTree[] children;
+
+    public ByteKeyBTree(int DIM) {
+        this(DIM, false);
+    }
+
+    /**
+     * @param DIM               树的阶
+     * @param prefix_compressed 是否在节点内压缩关键字的公共前缀
+     */
+    public ByteKeyBTree(int DIM, boolean prefix_compressed) {
+        this.DIM = DIM;
+        this.prefix_compressed = prefix_compressed;
+        this.node_size = 0;
+        this.prefix = EMPTY;
+        this.suffixes = new byte[DIM + 1][];
+        this.heads = new long[DIM + 1];
+        this.children = new ByteKeyBTree[DIM + 2];
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    public int getNodeSize() {
+        return this.node_size;
+    }
+
+    public boolean isPrefixCompressed() {
+        return this.prefix_compressed;
+    }
+
+    /**
+     * @return 当前节点公共前缀的长度
+     */
+    public int getPrefixLength() {
+        return this.prefix.length;
+    }
+
+    /**
+     * @return 第i个关键字的完整字节串
+     */
+    private byte[] key(int i) {
+        if (this.prefix.length == 0) {
+            return this.suffixes[i];
+        }
+        byte[] key = Arrays.copyOf(this.prefix, this.prefix.length + this.suffixes[i].length);
+        System.arraycopy(this.suffixes[i], 0, key, this.prefix.length, this.suffixes[i].length);
+        return key;
+    }
+
+    /**
+     * 把完整的关键字保存到位置i, 调用前需要保证key以prefix开头
+     */
+    private void put(int i, byte[] key) {
+        byte[] suffix = this.prefix.length == 0 ? key : Arrays.copyOfRange(key, this.prefix.length, key.length);
+        this.suffixes[i] = suffix;
+        this.heads[i] = ByteKeys.head(suffix, 0, suffix.length);
+    }
+
+    /**
+     * key不以prefix开头时, 把prefix缩短为两者的公共部分, 多出来的字节移回每个后缀
+     */
+    private void fitPrefix(byte[] key) {
+        int common = 0;
+        int length = Math.min(this.prefix.length, key.length);
+        while (common < length && this.prefix[common] == key[common]) {
+            ++common;
+        }
+        if (common == this.prefix.length) {
+            return;
+        }
+        byte[] moved = Arrays.copyOfRange(this.prefix, common, this.prefix.length);
+        for (int i = 0; i < this.node_size; ++i) {
+            byte[] suffix = ByteKeys.concat(moved, this.suffixes[i]);
+            this.suffixes[i] = suffix;
+            this.heads[i] = ByteKeys.head(suffix, 0, suffix.length);
+        }
+        this.prefix = common == 0 ? EMPTY : Arrays.copyOf(this.prefix, common);
+    }
+
+    private void setKey(int i, byte[] key) {
+        this.fitPrefix(key);
+        this.put(i, key);
+    }
+
+    /**
+     * 开启前缀压缩时, 新节点的前缀为当前前缀加上区间内所有后缀的公共部分
+     */
+    private ByteKeyBTree copy(int begin, int end) {
+        ByteKeyBTree root = new ByteKeyBTree(this.DIM, this.prefix_compressed);
+        int extra = 0;
+        if (this.prefix_compressed) {
+            byte[] first = this.suffixes[begin];
+            extra = first.length;
+            for (int i = begin + 1; i < end && extra > 0; ++i) {
+                byte[] suffix = this.suffixes[i];
+                int common = 0;
+                int length = Math.min(extra, suffix.length);
+                while (common < length && first[common] == suffix[common]) {
+                    ++common;
+                }
+                extra = common;
+            }
+            root.prefix = extra == 0 ? this.prefix : ByteKeys.concat(this.prefix, Arrays.copyOf(first, extra));
+        }
+        for (int i = 0; i < end - begin; ++i) {
+            if (extra == 0) {
+                root.suffixes[i] = this.suffixes[begin + i];
+                root.heads[i] = this.heads[begin + i];
+            } else {
+                byte[] suffix = Arrays.copyOfRange(this.suffixes[begin + i], extra, this.suffixes[begin + i].length);
+                root.suffixes[i] = suffix;
+                root.heads[i] = ByteKeys.head(suffix, 0, suffix.length);
+            }
+            root.children[i] = this.children[begin + i];
+            root.node_size++;
+        }
+        root.children[end - begin] = this.children[end];
+
+        return root;
+    }
+
+    private void insertChildren(int position, byte[] key, ByteKeyBTree left, ByteKeyBTree right) {
+        if (this.prefix_compressed && this.node_size == 0) {
+            // 只有一个关键字时, 整个关键字都是公共前缀
+            this.prefix = key;
+        } else {
+            this.fitPrefix(key);
+        }
+        for (int i = this.node_size; i > position; --i) {
+            this.suffixes[i] = this.suffixes[i - 1];
+            this.heads[i] = this.heads[i - 1];
+            this.children[i + 1] = this.children[i];
+        }
+        this.put(position, key);
+        this.children[position] = left;
+        this.children[position + 1] = right;
+        this.node_size++;
+    }
+
+    private void removeChildren(int position) {
+        for (int i = position; i < this.node_size - 1; ++i) {
+            this.suffixes[i] = this.suffixes[i + 1];
+            this.heads[i] = this.heads[i + 1];
+            this.children[i] = this.children[i + 1];
+        }
+        if (position != this.node_size - 1) {
+            this.children[this.node_size - 1] = this.children[this.node_size];
+        }
+        this.suffixes[this.node_size - 1] = null;
+        this.children[this.node_size] = null;
+        this.node_size--;
+    }
+
+    /**
+     * 比较key[offset, key.length)与第i个后缀, head为key在offset处的前8个字节
+     */
+    private int compareSuffix(byte[] key, int offset, long head, int i) {
+        if (head != this.heads[i]) {
+            return Long.compareUnsigned(head, this.heads[i]);
+        }
+        byte[] suffix = this.suffixes[i];
+        int length = key.length - offset;
+        if (length < Long.BYTES || suffix.length < Long.BYTES) {
+            // 前8个字节(不足时补0)相同, 较短的一方是另一方的前缀
+            return length - suffix.length;
+        }
+        return ByteKeys.compare(key, offset + Long.BYTES, key.length, suffix, Long.BYTES, suffix.length);
+    }
+
+    /**
+     * 先与公共前缀比较一次, 再在后缀中查找; 宽节点使用二分查找, 窄节点使用顺序查找, 阈值与BTree相同
+     *
+     * @param key 需要查找的关键字
+     * @return 当key在节点中存在时, 返回size + 下标 + 1; 否则, 返回需要搜索的位置
+     */
+    protected int dispatch(byte[] key) {
+        int offset = this.prefix.length;
+        if (offset != 0) {
+            int compared = ByteKeys.compare(key, 0, Math.min(offset, key.length), this.prefix, 0, offset);
+            if (compared < 0) {
+                return 0;
+            } else if (compared > 0) {
+                return this.node_size;
+            }
+        }
+        long head = ByteKeys.head(key, offset, key.length);
+        if (this.node_size <= BTree.LINEAR_DISPATCH_THRESHOLD) {
+            for (int i = 0; i < this.node_size; ++i) {
+                int compared = this.compareSuffix(key, offset, head, i);
+                if (compared <= 0) {
+                    return compared < 0 ? i : this.node_size + i + 1;
+                }
+            }
+            return this.node_size;
+        }
+        int low = 0, high = this.node_size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = this.compareSuffix(key, offset, head, middle);
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return this.node_size + middle + 1;
+            }
+        }
+        return low;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    public byte[] max() {
+        if (this.children[this.node_size] != null) {
+            return this.children[this.node_size].max();
+        } else {
+            return this.key(this.node_size - 1);
+        }
+    }
+
+    public byte[] min() {
+        if (this.children[0] != null) {
+            return this.children[0].min();
+        } else {
+            return this.key(0);
+        }
+    }
+
+    protected ByteKeyBTree split() {
+        int middle = this.DIM / 2;
+        ByteKeyBTree root = new ByteKeyBTree(this.DIM, this.prefix_compressed);
+        root.insertChildren(0, this.key(middle), this.copy(0, middle), this.copy(middle + 1, this.DIM));
+
+        return root;
+    }
+
+    protected void merge(int position) {
+        ByteKeyBTree merging = this.children[position];
+        this.insertChildren(position, merging.key(0), merging.children[0], merging.children[1]);
+    }
+
+    private void _insert(byte[] key) {
+        int position = this.dispatch(key);
+        if (position <= this.node_size) {
+            if (this.children[position] != null) {
+                this.children[position]._insert(key);
+
+                // balance
+                if (this.children[position].node_size == this.DIM) {
+                    this.children[position] = this.children[position].split();
+                    this.merge(position);
+                }
+            } else {
+                this.insertChildren(position, key, null, null);
+            }
+        }
+    }
+
+    public int size() {
+        int total = this.node_size;
+        for (ByteKeyBTree tree : this.children) {
+            if (tree == null) {
+                break;
+            }
+            total += tree.size();
+        }
+        return total;
+    }
+
+    public ByteKeyBTree insert(byte[] key) {
+        this._insert(key);
+        if (this.node_size == this.DIM) {
+            return this.split();
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * 子节点children[position]的元素个数少于下限时, 优先向左右兄弟借一个元素, 兄弟都不富余时与兄弟合并
+     *
+     * @param position 需要检查的子节点位置
+     */
+    private void rebalance(int position) {
+        if (this.children[position].node_size >= minElementSize()) {
+            return;
+        }
+        if (position != 0 && this.children[position - 1].node_size > minElementSize()) {
+            ByteKeyBTree removed = this.children[position];
+            ByteKeyBTree borrowed = this.children[position - 1];
+            removed.insertChildren(0, this.key(position - 1), borrowed.children[borrowed.node_size], removed.children[0]);
+            this.setKey(position - 1, borrowed.key(borrowed.node_size - 1));
+            borrowed.removeChildren(borrowed.node_size - 1);
+        } else if (position != this.node_size && this.children[position + 1].node_size > minElementSize()) {
+            ByteKeyBTree removed = this.children[position];
+            ByteKeyBTree borrowed = this.children[position + 1];
+            removed.insertChildren(removed.node_size, this.key(position), removed.children[removed.node_size], borrowed.children[0]);
+            this.setKey(position, borrowed.key(0));
+            borrowed.removeChildren(0);
+        } else {
+            if (position == this.node_size) {
+                position = position - 1;
+            }
+            ByteKeyBTree left = this.children[position];
+            ByteKeyBTree right = this.children[position + 1];
+
+            left.insertChildren(left.node_size, this.key(position), left.children[left.node_size], right.children[0]);
+            for (int i = 0; i < right.node_size; ++i) {
+                left.insertChildren(left.node_size, right.key(i), left.children[left.node_size], right.children[i + 1]);
+            }
+            this.removeChildren(position);
+            this.children[position] = left;
+        }
+    }
+
+    private void _remove(byte[] key) {
+        int position = this.dispatch(key);
+        if (position <= this.node_size) {
+            if (this.children[position] != null) {
+                this.children[position]._remove(key);
+                this.rebalance(position);
+            }
+        } else {
+            position = position - this.node_size - 1;
+            if (this.children[position] != null) {
+                byte[] max = this.children[position].max();
+                this.setKey(position, max);
+                this.children[position]._remove(max);
+                this.rebalance(position);
+            } else {
+                this.removeChildren(position);
+            }
+        }
+    }
+
+    public ByteKeyBTree remove(byte[] key) {
+        this._remove(key);
+        if (this.node_size == 0 && this.children[0] != null) {
+            return this.children[0];
+        } else {
+            return this;
+        }
+    }
+
+    public boolean contains(byte[] key) {
+        int position = this.dispatch(key);
+        if (position <= this.node_size) {
+            return this.children[position] != null && this.children[position].contains(key);
+        } else {
+            return true;
+        }
+    }
+
+    /**
+     * 开启前缀压缩时, 每个关键字都会重新拼接为新的字节串
+     */
+    public void travel(Consumer<byte[]> visitor) {
+        for (int i = 0; i < this.node_size; ++i) {
+            if (this.children[i] != null) {
+                this.children[i].travel(visitor);
+            }
+            visitor.accept(this.key(i));
+        }
+        if (this.children[this.node_size] != null) {
+            this.children[this.node_size].travel(visitor);
+        }
+    }
+
+    public void travelNode(Visitor<ByteKeyBTree> visitor) {
+        for (int i = 0; i < this.node_size; ++i) {
+            if (this.children[i] != null) {
+                this.children[i].travelNode(visitor);
+            }
+            visitor.visit(this);
+        }
+        if (this.children[this.node_size] != null) {
+            this.children[this.node_size].travelNode(visitor);
+        }
+    }
+
+    /**
+     * 按升序输出树中所有关键字
+     *
+     * @return 新的数组
+     */
+    public byte[][] toArray() {
+        byte[][] array = new byte[this.size()][];
+        int[] cursor = new int[1];
+        this.travel(key -> array[cursor[0]++] = key);
+        return array;
+    }
+}
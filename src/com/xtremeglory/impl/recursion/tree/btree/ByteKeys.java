@@ -0,0 +1,115 @@
+package com.xtremeglory.impl.recursion.tree.btree;
+
+import com.xtremeglory.impl.io.Utf8;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 把常见类型编码为保序的字节串: 编码后按无符号字节的字典序比较, 与原值的大小关系一致.
+ * 多个字段的编码直接拼接即得到元组(按字段依次比较)的编码, 因此复合关键字只需编码一次, 之后的比较都是字节比较
+ */
+public final class ByteKeys {
+    private ByteKeys() {
+    }
+
+    /**
+     * 按无符号字节的字典序比较, 一个字节串是另一个的前缀时, 较短的更小
+     */
+    public static int compare(byte[] a, byte[] b) {
+        return compare(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * 比较a[a_from, a_to)与b[b_from, b_to)
+     */
+    public static int compare(byte[] a, int a_from, int a_to, byte[] b, int b_from, int b_to) {
+        int length = Math.min(a_to - a_from, b_to - b_from);
+        int i = 0;
+        // 每次比较8个字节
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            long x = head(a, a_from + i, a_to);
+            long y = head(b, b_from + i, b_to);
+            if (x != y) {
+                return Long.compareUnsigned(x, y);
+            }
+        }
+        for (; i < length; ++i) {
+            int compared = (a[a_from + i] & 0xFF) - (b[b_from + i] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return (a_to - a_from) - (b_to - b_from);
+    }
+
+    /**
+     * 取bytes[from, to)的前8个字节, 按大端序组成long, 不足8个字节时低位补0.
+     * 两个long按无符号比较的结果与对应字节串前8个字节的比较结果一致
+     */
+    static long head(byte[] bytes, int from, int to) {
+        long head = 0;
+        int end = Math.min(to, from + Long.BYTES);
+        for (int i = from; i < end; ++i) {
+            head = (head << 8) | (bytes[i] & 0xFF);
+        }
+        return head << (8 * (Long.BYTES - Math.max(end - from, 0)));
+    }
+
+    /**
+     * 最高位取反后按大端序输出, 负数排在正数之前
+     */
+    public static byte[] of(int value) {
+        value ^= Integer.MIN_VALUE;
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    public static byte[] of(long value) {
+        value ^= Long.MIN_VALUE;
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; --i) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * 字符串按Utf8无损编码(合法字符串即标准UTF-8, 单独的代理字符按其代码单元值编码为3个字节, 不会像getBytes那样变成'?'),
+     * 其中的0x00转义为0x00 0xFF, 并以0x00 0x01结尾, 这样拼接在后面的字段不会影响前面字段的比较.
+     * 编码的字节序与码点顺序一致(单独的代理字符视为与其值相同的码点); 只有包含增补字符时,
+     * 才会与String.compareTo(按UTF-16代码单元)的结果不同
+     */
+    public static byte[] of(String value) {
+        byte[] utf8 = Utf8.encode(value);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length + 2);
+        for (byte b : utf8) {
+            out.write(b);
+            if (b == 0) {
+                out.write(0xFF);
+            }
+        }
+        out.write(0);
+        out.write(1);
+        return out.toByteArray();
+    }
+
+    /**
+     * 把各个字段的编码拼接为元组的编码
+     *
+     * @param fields 各字段通过of编码后的结果
+     * @return 新的字节串
+     */
+    public static byte[] concat(byte[]... fields) {
+        int length = 0;
+        for (byte[] field : fields) {
+            length += field.length;
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (byte[] field : fields) {
+            System.arraycopy(field, 0, bytes, offset, field.length);
+            offset += field.length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,286 @@
+package com.xtremeglory.impl.recursion.tree.btree;
+
+import com.xtremeglory.impl.Visitor;
+
+import java.util.function.IntConsumer;
+
+/**
+ * BTree对int关键字的特化版本, 算法与BTree完全一致.
+ * 关键字直接保存在int[]中, 比较时不需要装箱, 也不经过compareTo的虚调用,
+ * 每个关键字只占用4个字节, 且同一节点的关键字在内存中是连续的.
+ */
+public class IntBTree {
+    protected final int DIM;
+    private int node_size;
+    protected final int[] elements;
+    protected final IntBTree[] children;
+
+    public IntBTree(int DIM) {
+        this.DIM = DIM;
+        this.node_size = 0;
+        this.elements = new int[DIM + 1];
+        this.children = new IntBTree[DIM + 2];
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    public int getNodeSize() {
+        return this.node_size;
+    }
+
+    private IntBTree copy(int begin, int end) {
+        IntBTree root = new IntBTree(this.DIM);
+        for (int i = 0; i < end - begin; ++i) {
+            root.elements[i] = this.elements[begin + i];
+            root.children[i] = this.children[begin + i];
+            root.node_size++;
+        }
+        root.children[end - begin] = this.children[end];
+
+        return root;
+    }
+
+    private void insertChildren(int position, int element, IntBTree left, IntBTree right) {
+        for (int i = this.node_size; i > position; --i) {
+            this.elements[i] = this.elements[i - 1];
+            this.children[i + 1] = this.children[i];
+        }
+        this.elements[position] = element;
+        this.children[position] = left;
+        this.children[position + 1] = right;
+        this.node_size++;
+    }
+
+    private void removeChildren(int position) {
+        for (int i = position; i < this.node_size - 1; ++i) {
+            this.elements[i] = this.elements[i + 1];
+            this.children[i] = this.children[i + 1];
+        }
+        if (position != this.node_size - 1) {
+            this.children[this.node_size - 1] = this.children[this.node_size];
+        }
+        this.children[this.node_size] = null;
+        this.node_size--;
+    }
+
+    /**
+     * 宽节点使用二分查找, 窄节点使用顺序查找, 阈值与BTree相同
+     *
+     * @param element 需要查找的元素
+     * @return 当element在节点中存在时, 返回size + 下标 + 1; 否则, 返回需要搜索的位置
+     */
+    protected int dispatch(int element) {
+        if (this.node_size <= BTree.LINEAR_DISPATCH_THRESHOLD) {
+            for (int i = 0; i < this.node_size; ++i) {
+                if (element < this.elements[i]) {
+                    return i;
+                } else if (element == this.elements[i]) {
+                    return this.node_size + i + 1;
+                }
+            }
+            return this.node_size;
+        }
+        int low = 0, high = this.node_size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (element > this.elements[middle]) {
+                low = middle + 1;
+            } else if (element < this.elements[middle]) {
+                high = middle - 1;
+            } else {
+                return this.node_size + middle + 1;
+            }
+        }
+        return low;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    public int max() {
+        if (this.children[this.node_size] != null) {
+            return this.children[this.node_size].max();
+        } else {
+            return this.elements[this.node_size - 1];
+        }
+    }
+
+    public int min() {
+        if (this.children[0] != null) {
+            return this.children[0].min();
+        } else {
+            return this.elements[0];
+        }
+    }
+
+    protected IntBTree split() {
+        int middle = this.DIM / 2;
+        IntBTree root = new IntBTree(this.DIM);
+        root.elements[root.node_size++] = this.elements[middle];
+        root.children[0] = this.copy(0, middle);
+        root.children[1] = this.copy(middle + 1, this.DIM);
+
+        return root;
+    }
+
+    protected void merge(int position) {
+        IntBTree merging = this.children[position];
+        this.insertChildren(position, merging.elements[0], merging.children[0], merging.children[1]);
+    }
+
+    private void _insert(int element) {
+        int position = this.dispatch(element);
+        if (position <= this.node_size) {
+            if (this.children[position] != null) {
+                this.children[position]._insert(element);
+
+                // balance
+                if (this.children[position].node_size == this.DIM) {
+                    this.children[position] = this.children[position].split();
+                    this.merge(position);
+                }
+            } else {
+                this.insertChildren(position, element, null, null);
+            }
+        }
+    }
+
+    public int size() {
+        int total = this.node_size;
+        for (IntBTree tree : this.children) {
+            if (tree == null) {
+                break;
+            }
+            total += tree.size();
+        }
+        return total;
+    }
+
+    public IntBTree insert(int element) {
+        this._insert(element);
+        if (this.node_size == this.DIM) {
+            return this.split();
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * 子节点children[position]的元素个数少于下限时, 优先向左右兄弟借一个元素, 兄弟都不富余时与兄弟合并
+     *
+     * @param position 需要检查的子节点位置
+     */
+    private void rebalance(int position) {
+        if (this.children[position].node_size >= minElementSize()) {
+            return;
+        }
+        if (position != 0 && this.children[position - 1].node_size > minElementSize()) {
+            IntBTree removed = this.children[position];
+            IntBTree borrowed = this.children[position - 1];
+            removed.insertChildren(0, this.elements[position - 1], borrowed.children[borrowed.node_size], removed.children[0]);
+            this.elements[position - 1] = borrowed.elements[borrowed.node_size - 1];
+            borrowed.removeChildren(borrowed.node_size - 1);
+        } else if (position != this.node_size && this.children[position + 1].node_size > minElementSize()) {
+            IntBTree removed = this.children[position];
+            IntBTree borrowed = this.children[position + 1];
+            removed.insertChildren(removed.node_size, this.elements[position], removed.children[removed.node_size], borrowed.children[0]);
+            this.elements[position] = borrowed.elements[0];
+            borrowed.removeChildren(0);
+        } else {
+            if (position == this.node_size) {
+                position = position - 1;
+            }
+            IntBTree left = this.children[position];
+            IntBTree right = this.children[position + 1];
+
+            left.insertChildren(left.node_size, this.elements[position], left.children[left.node_size], right.children[0]);
+            for (int i = 0; i < right.node_size; ++i) {
+                left.insertChildren(left.node_size, right.elements[i], left.children[left.node_size], right.children[i + 1]);
+            }
+            this.removeChildren(position);
+            this.children[position] = left;
+        }
+    }
+
+    private void _remove(int element) {
+        int position = this.dispatch(element);
+        if (position <= this.node_size) {
+            if (this.children[position] != null) {
+                this.children[position]._remove(element);
+                this.rebalance(position);
+            }
+        } else {
+            position = position - this.node_size - 1;
+            if (this.children[position] != null) {
+                this.elements[position] = this.children[position].max();
+                this.children[position]._remove(this.elements[position]);
+                this.rebalance(position);
+            } else {
+                this.removeChildren(position);
+            }
+        }
+    }
+
+    public IntBTree remove(int element) {
+        this._remove(element);
+        if (this.node_size == 0 && this.children[0] != null) {
+            return this.children[0];
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * int没有null值可以表示"不存在", 因此用contains代替BTree.find
+     *
+     * @param element 要查找的元素
+     * @return 元素是否存在
+     */
+    public boolean contains(int element) {
+        int position = this.dispatch(element);
+        if (position <= this.node_size) {
+            return this.children[position] != null && this.children[position].contains(element);
+        } else {
+            return true;
+        }
+    }
+
+    public void travel(IntConsumer visitor) {
+        for (int i = 0; i < this.node_size; ++i) {
+            if (this.children[i] != null) {
+                this.children[i].travel(visitor);
+            }
+            visitor.accept(this.elements[i]);
+        }
+        if (this.children[this.node_size] != null) {
+            this.children[this.node_size].travel(visitor);
+        }
+    }
+
+    public void travelNode(Visitor<IntBTree> visitor) {
+        for (int i = 0; i < this.node_size; ++i) {
+            if (this.children[i] != null) {
+                this.children[i].travelNode(visitor);
+            }
+            visitor.visit(this);
+        }
+        if (this.children[this.node_size] != null) {
+            this.children[this.node_size].travelNode(visitor);
+        }
+    }
+
+    /**
+     * 按升序输出树中所有元素
+     *
+     * @return 新的数组
+     */
+    public int[] toArray() {
+        int[] array = new int[this.size()];
+        int[] cursor = new int[1];
+        this.travel(element -> array[cursor[0]++] = element);
+        return array;
+    }
+}
@@ -0,0 +1,375 @@
+package com.xtremeglory.impl.recursion.tree.btree;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.Tree;
+import com.xtremeglory.impl.Visitor;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 持久化(写时复制)的BTree, 节点规则与BTree一致.
+ * <p>
+ * 每个PersistentBTree对象都是一个不可变的版本: insert与remove只复制从根到叶子路径上的节点(以及平衡时涉及的兄弟节点),
+ * 其余子树在新旧版本之间共享, 并返回新的版本, 原版本保持不变.
+ * 因此snapshot()是O(1)的, 任意线程都可以在不加锁的情况下遍历旧版本, 同时写者继续产生新版本.
+ *
+ * @param <E>
+ */
+public class PersistentBTree<E extends Comparable<E>> implements Tree<E> {
+    /**
+     * 不可变节点; 叶子的children为null. 元素数组的长度就是节点的元素个数
+     */
+    static final class Node<E> {
+        final Object[] elements;
+        final Node<E>[] children;
+
+        Node(Object[] elements, Node<E>[] children) {
+            this.elements = elements;
+            this.children = children;
+        }
+
+        int size() {
+            return this.elements.length;
+        }
+
+        boolean isLeaf() {
+            return this.children == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        E element(int index) {
+            return (E) this.elements[index];
+        }
+    }
+
+    protected final int DIM;
+    private final Node<E> root;
+    private final int size;
+
+    @SuppressWarnings("unchecked")
+    public PersistentBTree(int DIM) {
+        this(DIM, new Node<>(new Object[0], null), 0);
+    }
+
+    private PersistentBTree(int DIM, Node<E> root, int size) {
+        this.DIM = DIM;
+        this.root = root;
+        this.size = size;
+    }
+
+    public int getDIM() {
+        return this.DIM;
+    }
+
+    protected int minElementSize() {
+        return (this.DIM - 1) / 2;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * 当前版本是不可变的, 快照就是它本身
+     *
+     * @return 当前版本
+     */
+    public PersistentBTree<E> snapshot() {
+        return this;
+    }
+
+    public int height() {
+        int height = 1;
+        for (Node<E> node = this.root; !node.isLeaf(); node = node.children[0]) {
+            ++height;
+        }
+        return height;
+    }
+
+    /**
+     * @return 命中时返回下标, 否则返回 -(子树位置) - 1
+     */
+    private static <E extends Comparable<E>> int search(Node<E> node, E element) {
+        int low = 0, high = node.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = element.compareTo(node.element(middle));
+            if (compared > 0) {
+                low = middle + 1;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    // 数组的复制操作, 返回新数组
+
+    private static <T> T[] inserted(T[] array, int index, T value) {
+        T[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        result[index] = value;
+        return result;
+    }
+
+    private static <T> T[] removed(T[] array, int index) {
+        T[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static <T> T[] replaced(T[] array, int index, T value) {
+        T[] result = array.clone();
+        result[index] = value;
+        return result;
+    }
+
+    // 查找
+
+    @Override
+    public E find(E element) {
+        Node<E> node = this.root;
+        while (true) {
+            int position = search(node, element);
+            if (position >= 0) {
+                return node.element(position);
+            }
+            if (node.isLeaf()) {
+                return null;
+            }
+            node = node.children[-position - 1];
+        }
+    }
+
+    // 插入
+
+    @Override
+    public PersistentBTree<E> insert(E element) {
+        Node<E> root = this._insert(this.root, element);
+        if (root == this.root) {
+            return this;
+        }
+        if (root.size() == this.DIM) {
+            int middle = this.DIM / 2;
+            @SuppressWarnings("unchecked")
+            Node<E>[] children = new Node[]{this.left(root, middle), this.right(root, middle)};
+            root = new Node<>(new Object[]{root.elements[middle]}, children);
+        }
+        return new PersistentBTree<>(this.DIM, root, this.size + 1);
+    }
+
+    /**
+     * @return 插入后的新节点, 元素个数可能暂时达到DIM, 由父节点负责分裂; 元素已存在时返回node本身
+     */
+    private Node<E> _insert(Node<E> node, E element) {
+        int position = search(node, element);
+        if (position >= 0) {
+            return node;
+        }
+        position = -position - 1;
+        if (node.isLeaf()) {
+            return new Node<>(inserted(node.elements, position, element), null);
+        }
+        Node<E> child = node.children[position];
+        Node<E> inserted = this._insert(child, element);
+        if (inserted == child) {
+            return node;
+        }
+        if (inserted.size() < this.DIM) {
+            return new Node<>(node.elements, replaced(node.children, position, inserted));
+        }
+        // 子节点分裂, 中间元素上移
+        int middle = this.DIM / 2;
+        Node<E>[] children = replaced(node.children, position, this.left(inserted, middle));
+        children = inserted(children, position + 1, this.right(inserted, middle));
+        return new Node<>(inserted(node.elements, position, inserted.elements[middle]), children);
+    }
+
+    private Node<E> left(Node<E> node, int middle) {
+        return new Node<>(Arrays.copyOfRange(node.elements, 0, middle),
+                node.isLeaf() ? null : Arrays.copyOfRange(node.children, 0, middle + 1));
+    }
+
+    private Node<E> right(Node<E> node, int middle) {
+        return new Node<>(Arrays.copyOfRange(node.elements, middle + 1, node.size()),
+                node.isLeaf() ? null : Arrays.copyOfRange(node.children, middle + 1, node.size() + 1));
+    }
+
+    // 删除
+
+    @Override
+    public PersistentBTree<E> remove(E element) {
+        Node<E> root = this._remove(this.root, element);
+        if (root == this.root) {
+            return this;
+        }
+        if (root.size() == 0 && !root.isLeaf()) {
+            root = root.children[0];
+        }
+        return new PersistentBTree<>(this.DIM, root, this.size - 1);
+    }
+
+    private E max(Node<E> node) {
+        while (!node.isLeaf()) {
+            node = node.children[node.size()];
+        }
+        return node.element(node.size() - 1);
+    }
+
+    /**
+     * @return 删除后的新节点, 元素个数可能低于下限, 由父节点负责平衡; 元素不存在时返回node本身
+     */
+    private Node<E> _remove(Node<E> node, E element) {
+        int position = search(node, element);
+        if (node.isLeaf()) {
+            return position >= 0 ? new Node<>(removed(node.elements, position), null) : node;
+        }
+        if (position >= 0) {
+            // 用左子树的最大值替换被删除元素
+            E predecessor = this.max(node.children[position]);
+            Node<E> child = this._remove(node.children[position], predecessor);
+            return this.rebalance(replaced(node.elements, position, predecessor), replaced(node.children, position, child), position);
+        }
+        position = -position - 1;
+        Node<E> child = node.children[position];
+        Node<E> removed = this._remove(child, element);
+        if (removed == child) {
+            return node;
+        }
+        return this.rebalance(node.elements, replaced(node.children, position, removed), position);
+    }
+
+    /**
+     * 子节点children[position]元素不足时, 优先向兄弟借用, 否则与兄弟合并. 被修改的兄弟节点同样被复制;
+     * children是新复制的数组, 可以直接修改
+     */
+    private Node<E> rebalance(Object[] elements, Node<E>[] children, int position) {
+        Node<E> child = children[position];
+        if (child.size() >= this.minElementSize()) {
+            return new Node<>(elements, children);
+        }
+        if (position > 0 && children[position - 1].size() > this.minElementSize()) {
+            Node<E> left = children[position - 1];
+            int last = left.size() - 1;
+            children[position - 1] = new Node<>(removed(left.elements, last),
+                    left.isLeaf() ? null : removed(left.children, last + 1));
+            children[position] = new Node<>(inserted(child.elements, 0, elements[position - 1]),
+                    child.isLeaf() ? null : inserted(child.children, 0, left.children[last + 1]));
+            return new Node<>(replaced(elements, position - 1, left.elements[last]), children);
+        }
+        if (position < elements.length && children[position + 1].size() > this.minElementSize()) {
+            Node<E> right = children[position + 1];
+            children[position + 1] = new Node<>(removed(right.elements, 0),
+                    right.isLeaf() ? null : removed(right.children, 0));
+            children[position] = new Node<>(inserted(child.elements, child.size(), elements[position]),
+                    child.isLeaf() ? null : inserted(child.children, child.size() + 1, right.children[0]));
+            return new Node<>(replaced(elements, position, right.elements[0]), children);
+        }
+        if (position == elements.length) {
+            position = position - 1;
+        }
+        Node<E> left = children[position];
+        Node<E> right = children[position + 1];
+        Object[] merged_elements = Arrays.copyOf(left.elements, left.size() + right.size() + 1);
+        merged_elements[left.size()] = elements[position];
+        System.arraycopy(right.elements, 0, merged_elements, left.size() + 1, right.size());
+        Node<E>[] merged_children = null;
+        if (!left.isLeaf()) {
+            merged_children = Arrays.copyOf(left.children, left.size() + right.size() + 2);
+            System.arraycopy(right.children, 0, merged_children, left.size() + 1, right.size() + 1);
+        }
+        children = removed(children, position + 1);
+        children[position] = new Node<>(merged_elements, merged_children);
+        return new Node<>(removed(elements, position), children);
+    }
+
+    // 遍历
+
+    @Override
+    public void travel(Visitor<E> visitor) {
+        this.travel(this.root, visitor);
+    }
+
+    private void travel(Node<E> node, Visitor<E> visitor) {
+        for (int i = 0; i < node.size(); ++i) {
+            if (!node.isLeaf()) {
+                this.travel(node.children[i], visitor);
+            }
+            visitor.visit(node.element(i));
+        }
+        if (!node.isLeaf()) {
+            this.travel(node.children[node.size()], visitor);
+        }
+    }
+
+    @Override
+    public List<E> asList() {
+        List<E> list = new ArrayList<>(this.size);
+        this.travel(element -> list.insert(element, list.size()));
+        return list;
+    }
+
+    /**
+     * 版本不可变, 迭代器不需要加锁, 也不会因为之后的修改而失效
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new PersistentBTreeIterator();
+    }
+
+    private final class PersistentBTreeIterator implements Iterator<E> {
+        // 从根到当前节点的路径, 以及每层下一个要输出的元素位置
+        private final Node<E>[] nodes;
+        private final int[] cursors;
+        private int depth;
+
+        @SuppressWarnings("unchecked")
+        PersistentBTreeIterator() {
+            int height = height();
+            this.nodes = new Node[height];
+            this.cursors = new int[height];
+            this.depth = -1;
+            this.pushLeftmost(root);
+            this.popFinished();
+        }
+
+        private void pushLeftmost(Node<E> node) {
+            while (node != null) {
+                this.nodes[++this.depth] = node;
+                this.cursors[this.depth] = 0;
+                node = node.isLeaf() ? null : node.children[0];
+            }
+        }
+
+        private void popFinished() {
+            while (this.depth >= 0 && this.cursors[this.depth] == this.nodes[this.depth].size()) {
+                this.depth--;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth >= 0;
+        }
+
+        @Override
+        public E next() {
+            if (this.depth < 0) {
+                throw new NoSuchElementException();
+            }
+            Node<E> node = this.nodes[this.depth];
+            E element = node.element(this.cursors[this.depth]++);
+            if (!node.isLeaf()) {
+                this.pushLeftmost(node.children[this.cursors[this.depth]]);
+            }
+            this.popFinished();
+            return element;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.xtremeglory.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.SearchDirection;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArrayListTest extends ListTest {
+    @Override
+    protected <T> List<T> getInstance() {
+        return new ArrayList<>();
+    }
+
+    @Test
+    public void searchDirection() {
+        ArrayList<Integer> list = new ArrayList<>();
+        initList(list, new Integer[]{1, 2, 3, 2, 1});
+        Assert.assertEquals(list.indexOf(2, 0, SearchDirection.FROM_FRONT_TO_BACK), 1);
+        Assert.assertEquals(list.indexOf(2, 4, SearchDirection.FROM_BACK_TO_FRONT), 3);
+        Assert.assertEquals(list.indexOf(3, 1, SearchDirection.FROM_BACK_TO_FRONT), -1);
+        Assert.assertEquals(list.remove((Integer) 1, 4, SearchDirection.FROM_BACK_TO_FRONT), (Integer) 1);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2, 3, 2});
+    }
+
+    @Test
+    public void lazyRemove() {
+        ArrayList<Integer> list = new ArrayList<>(4, true);
+        initList(list, 1000, true);
+        for (int i = 0; i < 500; ++i) {
+            list.remove(i);
+        }
+        // 每次删除后下标向前移动一位,剩下的是奇数
+        Assert.assertEquals(list.size(), 500);
+        for (int i = 0; i < 500; ++i) {
+            Assert.assertEquals((long) list.get(i), 2 * i + 1);
+        }
+        Assert.assertEquals(list.indexOf(999), 499);
+        list.insert(-1, 250);
+        Assert.assertEquals((long) list.get(250), -1);
+        list.remove(250);
+        list.remove(0);
+        Assert.assertTrue(list.compact());
+        assertOrder(list, true);
+        Assert.assertEquals(list.size(), 499);
+        Assert.assertEquals((long) list.get(0), 3);
+    }
+
+    @Test
+    public void lazyRemoveAll() {
+        ArrayList<Integer> list = new ArrayList<>(0, true);
+        initList(list, 100, true);
+        while (!list.isEmpty()) {
+            list.remove(list.size() / 2);
+            list.insert(list.size(), list.size());
+            list.remove(list.size() - 1);
+            assertOrder(list, true);
+        }
+        list.insert(7, 0);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{7});
+    }
+
+    @Test
+    public void lazyRemoveIf() {
+        ArrayList<Integer> list = new ArrayList<>(4, true);
+        initList(list, 20, true);
+        list.remove(3);
+        list.remove(10);
+        // 删除了3与11, 留下两个墓碑
+        try {
+            list.removeIf(value -> {
+                if (value == 15) {
+                    throw new IllegalStateException();
+                }
+                return value % 2 == 0;
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 谓词抛出异常时表保持不变
+        }
+        Assert.assertEquals(list.size(), 18);
+        Assert.assertEquals((long) list.get(3), 4);
+        Assert.assertEquals(list.removeIf(value -> value > 100), 0);
+        Assert.assertEquals(list.removeIf(value -> value % 2 == 0), 10);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 5, 7, 9, 13, 15, 17, 19});
+    }
+
+    @Test
+    public void lazyRemoveStream() {
+        ArrayList<Integer> list = new ArrayList<>(10, true);
+        initList(list, 1000, true);
+        for (int i = 999; i >= 0; i -= 3) {
+            list.remove(i);
+        }
+        Object[] array = list.parallelStream().toArray();
+        Assert.assertEquals(array.length, list.size());
+        for (int i = 0; i < array.length; ++i) {
+            Assert.assertEquals(array[i], list.get(i));
+        }
+    }
+
+    @Test
+    public void lazyRemoveBulk() {
+        ArrayList<Integer> list = new ArrayList<>(10, true);
+        initList(list, 10, true);
+        list.remove(2);
+        list.remove(5);
+        // 0 1 3 4 5 7 8 9
+        list.removeRange(1, 3);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{0, 4, 5, 7, 8, 9});
+        list.remove(0);
+        list.insertAll(java.util.Arrays.asList(1, 2, 3), 0);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2, 3, 4, 5, 7, 8, 9});
+        list.remove(4);
+        Assert.assertEquals(list.removeIf(value -> value % 2 == 0), 3);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 3, 7, 9});
+    }
+}
@@ -0,0 +1,48 @@
+package com.xtremeglory.list;
+
+import com.xtremeglory.impl.iteration.list.IntList;
+import com.xtremeglory.impl.iteration.list.LongList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.PrimitiveIterator;
+
+public class IntListTest {
+    @Test
+    public void insertRemove() {
+        IntList list = new IntList(0);
+        for (int i = 0; i < 999; ++i) {
+            list.insert(i, 0);
+        }
+        for (int i = 0; i < 999; ++i) {
+            Assert.assertEquals(list.get(i), 999 - i - 1);
+        }
+        Assert.assertEquals(list.remove(0), 998);
+        Assert.assertTrue(list.removeElement(0));
+        Assert.assertFalse(list.removeElement(0));
+        Assert.assertEquals(list.indexOf(500), 497);
+        list.set(-1, 0);
+        list.add(1000);
+        Assert.assertEquals(list.size(), 998);
+        Assert.assertEquals(list.get(0), -1);
+        Assert.assertEquals(list.get(list.size() - 1), 1000);
+
+        int sum = 0;
+        PrimitiveIterator.OfInt iterator = list.iterator();
+        while (iterator.hasNext()) {
+            sum += iterator.nextInt();
+        }
+        Assert.assertEquals(sum, (1 + 997) * 997 / 2 - 998 + 1000);
+    }
+
+    @Test
+    public void longList() {
+        LongList list = new LongList();
+        for (long i = 0; i < 100; ++i) {
+            list.add(i << 40);
+        }
+        Assert.assertEquals(list.indexOf(50L << 40), 50);
+        Assert.assertEquals(list.remove(99), 99L << 40);
+        Assert.assertArrayEquals(new long[]{0, 1L << 40}, java.util.Arrays.copyOf(list.toArray(), 2));
+    }
+}
@@ -0,0 +1,38 @@
+package com.xtremeglory.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.iteration.list.LinkedList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IterationLinkedListTest extends ListTest {
+    @Override
+    protected <T> List<T> getInstance() {
+        return new LinkedList<>();
+    }
+
+    @Test
+    public void largeAppend() {
+        List<Integer> list = getInstance();
+        int count = 500000;
+        initList(list, count, true);
+        Assert.assertEquals(list.size(), count);
+        Assert.assertEquals((long) list.get(count - 1), count - 1);
+        Assert.assertEquals(list.indexOf(count - 1), count - 1);
+    }
+
+    @Test
+    public void tailAfterRemove() {
+        List<Integer> list = getInstance();
+        initList(list, 10, true);
+        list.remove(list.size() - 1);
+        list.insert(100, list.size());
+        Assert.assertEquals((long) list.get(list.size() - 1), 100);
+        while (!list.isEmpty()) {
+            list.remove(0);
+        }
+        list.insert(1, 0);
+        list.insert(2, 1);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2});
+    }
+}
@@ -6,6 +6,9 @@ import com.xtremeglory.utils.BasicTestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
 public class ListTest {
     static final Class<? extends List> clazz = LinkedList.class;
 
@@ -20,14 +23,16 @@ public class ListTest {
     }
 
     public void assertOrder(List<Integer> list, boolean asc) {
-        int i = list.size() - 1;
-        while (i > 0) {
-            if (asc) {
-                Assert.assertTrue(list.get(i - 1) < list.get(i));
-            } else {
-                Assert.assertTrue(list.get(i - 1) > list.get(i));
+        Integer previous = null;
+        for (Integer current : list) {
+            if (previous != null) {
+                if (asc) {
+                    Assert.assertTrue(previous < current);
+                } else {
+                    Assert.assertTrue(previous > current);
+                }
             }
-            --i;
+            previous = current;
         }
     }
 
@@ -210,4 +215,139 @@ public class ListTest {
             Assert.assertArrayEquals(list.asList(), dst_array);
         }
     }
+
+    @Test
+    public void iterator() {
+        List<Integer> list = getInstance();
+        initList(list, 999, true);
+
+        int i = 0;
+        for (int value : list) {
+            Assert.assertEquals(value, i++);
+        }
+        Assert.assertEquals(i, 999);
+
+        // 删除所有奇数
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(list.size(), 500);
+        i = 0;
+        for (int value : list) {
+            Assert.assertEquals(value, 2 * i++);
+        }
+
+        // 删除全部元素后再追加,验证尾部状态正确
+        iterator = list.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        Assert.assertTrue(list.isEmpty());
+        list.insert(1, list.size());
+        list.insert(2, list.size());
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2});
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailFast() {
+        List<Integer> list = getInstance();
+        initList(list, 10, true);
+        for (int value : list) {
+            if (value == 5) {
+                list.remove(0);
+            }
+        }
+    }
+
+    @Test
+    public void stream() {
+        List<Integer> list = getInstance();
+        initList(list, 999, true);
+        Assert.assertEquals(list.stream().mapToLong(Integer::longValue).sum(), 999L * 998 / 2);
+        Assert.assertEquals(list.parallelStream().mapToLong(Integer::longValue).sum(), 999L * 998 / 2);
+        Object[] array = list.parallelStream().toArray();
+        for (int i = 0; i < 999; ++i) {
+            Assert.assertEquals(array[i], i);
+        }
+    }
+
+    @Test
+    public void insertAll() {
+        List<Integer> list = getInstance();
+        initList(list, new Integer[]{0, 1, 5});
+        List<Integer> source = getInstance();
+        initList(source, new Integer[]{2, 3, 4});
+        list.insertAll(source, 2);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{0, 1, 2, 3, 4, 5});
+        // source为当前表
+        list.addAll(list);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5});
+        list.insertAll(java.util.Arrays.asList(-2, -1), 0);
+        list.insertAll(java.util.Collections.emptyList(), 3);
+        Assert.assertEquals(list.size(), 14);
+        Assert.assertEquals((long) list.get(0), -2);
+        list.insert(6, list.size());
+        Assert.assertEquals((long) list.get(14), 6);
+    }
+
+    @Test
+    public void removeRange() {
+        List<Integer> list = getInstance();
+        initList(list, 10, true);
+        list.removeRange(2, 5);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{0, 1, 5, 6, 7, 8, 9});
+        list.removeRange(4, 7);
+        list.removeRange(0, 0);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{0, 1, 5, 6});
+        list.insert(10, list.size());
+        Assert.assertEquals((long) list.get(4), 10);
+        list.removeRange(0, list.size());
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void removeRangeOutOfBounds() {
+        List<Integer> list = getInstance();
+        initList(list, 10, true);
+        list.removeRange(5, 11);
+    }
+
+    @Test
+    public void removeIf() {
+        List<Integer> list = getInstance();
+        initList(list, 20, true);
+        Assert.assertEquals(list.removeIf(value -> value % 3 == 0), 7);
+        Assert.assertEquals(list.retainIf(value -> value < 10), 7);
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2, 4, 5, 7, 8});
+        Assert.assertEquals(list.removeIf(value -> value > 7), 1);
+        list.insert(9, list.size());
+        Assert.assertArrayEquals(list.asList(), new Integer[]{1, 2, 4, 5, 7, 9});
+    }
+
+    @Test
+    public void removeIfThrows() {
+        List<Integer> list = getInstance();
+        initList(list, 20, true);
+        try {
+            list.removeIf(value -> {
+                if (value == 15) {
+                    throw new IllegalStateException();
+                }
+                return value % 2 == 0;
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 谓词抛出异常时表保持不变
+        }
+        Assert.assertEquals(list.size(), 20);
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertEquals((long) list.get(i), i);
+        }
+        list.insert(20, list.size());
+        Assert.assertEquals((long) list.get(20), 20);
+    }
 }
@@ -0,0 +1,136 @@
+package com.xtremeglory.list;
+
+import com.xtremeglory.impl.List;
+import com.xtremeglory.impl.iteration.list.UnrolledLinkedList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class UnrolledLinkedListTest extends ListTest {
+    @Override
+    protected <T> List<T> getInstance() {
+        // 块容量取小值, 让公共用例也覆盖分裂与合并
+        return new UnrolledLinkedList<>(4);
+    }
+
+    private static void assertSame(List<Integer> list, java.util.List<Integer> expected) {
+        Assert.assertEquals(list.size(), expected.size());
+        Assert.assertArrayEquals(list.asList(), expected.toArray(new Integer[0]));
+        int i = 0;
+        for (int value : list) {
+            Assert.assertEquals(value, (int) expected.get(i++));
+        }
+        Assert.assertEquals(i, expected.size());
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(25);
+        for (int capacity = 2; capacity <= 17; ++capacity) {
+            List<Integer> list = new UnrolledLinkedList<>(capacity);
+            java.util.List<Integer> expected = new java.util.ArrayList<>();
+            for (int step = 0; step < 3000; ++step) {
+                int operation = random.nextInt(10);
+                int size = expected.size();
+                if (operation < 4 || size == 0) {
+                    int index = random.nextInt(size + 1);
+                    list.insert(step, index);
+                    expected.add(index, step);
+                } else if (operation < 6) {
+                    int index = random.nextInt(size);
+                    Assert.assertEquals(list.remove(index), expected.remove(index));
+                } else if (operation == 6) {
+                    int index = random.nextInt(size);
+                    Assert.assertEquals(list.get(index), expected.get(index));
+                    list.set(-step, index);
+                    expected.set(index, -step);
+                } else if (operation == 7) {
+                    int from = random.nextInt(size + 1);
+                    int to = from + random.nextInt(size - from + 1);
+                    list.removeRange(from, to);
+                    expected.subList(from, to).clear();
+                } else if (operation == 8) {
+                    int index = random.nextInt(size + 1);
+                    java.util.List<Integer> source = new java.util.ArrayList<>();
+                    for (int i = random.nextInt(3 * capacity); i > 0; --i) {
+                        source.add(step * 100 + i);
+                    }
+                    list.insertAll(source, index);
+                    expected.addAll(index, source);
+                } else {
+                    int modulo = 2 + random.nextInt(6);
+                    int removed = list.removeIf(value -> value % modulo == 0);
+                    int before = expected.size();
+                    expected.removeIf(value -> value % modulo == 0);
+                    Assert.assertEquals(removed, before - expected.size());
+                }
+                if (!expected.isEmpty()) {
+                    Integer probe = expected.get(random.nextInt(expected.size()));
+                    Assert.assertEquals(list.indexOf(probe), expected.indexOf(probe));
+                }
+                // 每次操作后在表尾追加, 验证tail正确
+                list.insert(step, list.size());
+                expected.add(step);
+            }
+            assertSame(list, expected);
+            list.compact();
+            assertSame(list, expected);
+        }
+    }
+
+    @Test
+    public void iteratorRemoveAll() {
+        for (int capacity = 2; capacity <= 9; ++capacity) {
+            List<Integer> list = new UnrolledLinkedList<>(capacity);
+            java.util.List<Integer> expected = new java.util.ArrayList<>();
+            initList(list, 100, true);
+            for (int i = 0; i < 100; ++i) {
+                expected.add(i);
+            }
+            Iterator<Integer> iterator = list.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() % 3 != 1) {
+                    iterator.remove();
+                }
+            }
+            expected.removeIf(value -> value % 3 != 1);
+            assertSame(list, expected);
+            list.insert(1000, 0);
+            list.insert(1001, list.size());
+            expected.add(0, 1000);
+            expected.add(1001);
+            assertSame(list, expected);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalCapacity() {
+        new UnrolledLinkedList<Integer>(1);
+    }
+
+    @Test
+    public void removeIfThrows() {
+        for (int capacity = 2; capacity <= 9; ++capacity) {
+            List<Integer> list = new UnrolledLinkedList<>(capacity);
+            java.util.List<Integer> expected = new java.util.ArrayList<>();
+            for (int i = 0; i < 50; ++i) {
+                list.insert(i, i);
+                expected.add(i);
+            }
+            try {
+                list.removeIf(value -> {
+                    if (value == 40) {
+                        throw new IllegalStateException();
+                    }
+                    return value % 2 == 0;
+                });
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // 谓词抛出异常时表保持不变
+            }
+            assertSame(list, expected);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.xtremeglory.metrics;
+
+import com.xtremeglory.impl.iteration.list.ArrayList;
+import com.xtremeglory.impl.metrics.CounterSink;
+import com.xtremeglory.impl.metrics.Metrics;
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class MetricsTest {
+    @Test
+    public void counterSink() {
+        CounterSink sink = new CounterSink();
+        sink.add("a", 3);
+        sink.add("a", 4);
+        Assert.assertEquals(sink.getCounter("a"), 7);
+        Assert.assertEquals(sink.getCounter("b"), 0);
+        Assert.assertNull(sink.getHistogram("h"));
+        for (long value : new long[]{0, 1, 2, 3, 4, 1000}) {
+            sink.record("h", value);
+        }
+        CounterSink.Histogram histogram = sink.getHistogram("h");
+        Assert.assertEquals(histogram.getCount(), 6);
+        Assert.assertEquals(histogram.getSum(), 1010);
+        Assert.assertEquals(histogram.getBucket(0), 1);
+        Assert.assertEquals(histogram.getBucket(1), 1);
+        Assert.assertEquals(histogram.getBucket(2), 2);
+        Assert.assertEquals(histogram.getBucket(3), 1);
+        Assert.assertEquals(histogram.getBucket(10), 1);
+        String exported = sink.export();
+        Assert.assertTrue(exported.contains("a 7\n"));
+        Assert.assertTrue(exported.contains("h_count 6\n"));
+        Assert.assertTrue(exported.contains("h_bucket{le=\"4\"} 4\n"));
+        Assert.assertTrue(exported.contains("h_bucket{le=\"1024\"} 6\n"));
+        sink.reset();
+        Assert.assertEquals(sink.getCounter("a"), 0);
+    }
+
+    /**
+     * 只有使用 -Dxtremeglory.metrics=true 运行时才会检查埋点, 否则跳过; pom.xml中的metrics执行会在单独的JVM中开启该属性运行
+     */
+    @Test
+    public void hooks() {
+        Assume.assumeTrue(Metrics.ENABLED);
+        CounterSink sink = new CounterSink();
+        Metrics.setSink(sink);
+        try {
+            BTree<Integer> bt = new BTree<>(5);
+            for (int i = 0; i < 1000; ++i) {
+                bt = bt.insert(i);
+            }
+            Assert.assertTrue(sink.getCounter(Metrics.BTREE_SPLIT) > 0);
+            sink.reset();
+            for (int i = 0; i < 1000; ++i) {
+                bt.find(i);
+            }
+            Assert.assertEquals(sink.getCounter(Metrics.BTREE_FIND), 1000);
+            Assert.assertTrue(sink.getCounter(Metrics.BTREE_COMPARE) >= 1000);
+            for (int i = 0; i < 1000; ++i) {
+                bt = bt.remove(i);
+            }
+            Assert.assertTrue(sink.getCounter(Metrics.BTREE_MERGE) > 0);
+
+            ArrayList<Integer> list = new ArrayList<>(2);
+            for (int i = 0; i < 100; ++i) {
+                list.insert(i, 0);
+            }
+            Assert.assertTrue(sink.getCounter(Metrics.LIST_GROW) > 0);
+            Assert.assertEquals(sink.getHistogram(Metrics.LIST_SHIFT).getSum(), 99 * 100 / 2);
+        } finally {
+            Metrics.setSink(new CounterSink());
+        }
+    }
+}
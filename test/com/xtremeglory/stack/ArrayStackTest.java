@@ -0,0 +1,11 @@
+package com.xtremeglory.stack;
+
+import com.xtremeglory.impl.AbstractStack;
+import com.xtremeglory.impl.iteration.stack.ArrayStack;
+
+public class ArrayStackTest extends StackTest {
+    @Override
+    protected AbstractStack<Integer> getInstance() {
+        return new ArrayStack<>(0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.xtremeglory.stack;
+
+import com.xtremeglory.impl.AbstractStack;
+import com.xtremeglory.impl.concurrent.stack.ConcurrentStack;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ConcurrentStackTest extends StackTest {
+    @Override
+    protected AbstractStack<Integer> getInstance() {
+        return new ConcurrentStack<>();
+    }
+
+    @Test
+    public void tryPop() {
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+        Assert.assertNull(stack.tryPop());
+        stack.push(1);
+        Assert.assertEquals((long) stack.tryPop(), 1);
+        Assert.assertNull(stack.tryPop());
+    }
+
+    /**
+     * 每个线程交替压入自己的元素并弹出任意元素, 结束后每个元素恰好被弹出一次
+     */
+    private void concurrentPushPop(ConcurrentStack<Integer> stack) throws InterruptedException {
+        int threads_count = 4, count = 50000;
+        AtomicIntegerArray popped = new AtomicIntegerArray(threads_count * count);
+        Thread[] threads = new Thread[threads_count];
+        for (int t = 0; t < threads_count; ++t) {
+            int offset = t * count;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < count; ++i) {
+                    stack.push(offset + i);
+                    if ((i & 1) == 1) {
+                        popped.incrementAndGet(stack.pop());
+                        popped.incrementAndGet(stack.pop());
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(stack.isEmpty());
+        for (int i = 0; i < popped.length(); ++i) {
+            Assert.assertEquals(popped.get(i), 1);
+        }
+    }
+
+    @Test
+    public void concurrentPushPop() throws InterruptedException {
+        this.concurrentPushPop(new ConcurrentStack<>());
+    }
+
+    @Test
+    public void elimination() throws InterruptedException {
+        this.concurrentPushPop(new ConcurrentStack<>(2));
+    }
+}
@@ -0,0 +1,26 @@
+package com.xtremeglory.stack;
+
+import com.xtremeglory.impl.iteration.stack.IntStack;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntStackTest {
+    @Test
+    public void pushPop() {
+        IntStack stack = new IntStack(1);
+        for (int i = 0; i < 1000; ++i) {
+            stack.push(i);
+        }
+        Assert.assertEquals(stack.top(), 999);
+        Assert.assertEquals(stack.size(), 1000);
+        for (int i = 999; i >= 0; --i) {
+            Assert.assertEquals(stack.pop(), i);
+        }
+        Assert.assertTrue(stack.isEmpty());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void popEmpty() {
+        new IntStack(1).pop();
+    }
+}
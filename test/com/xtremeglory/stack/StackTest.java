@@ -0,0 +1,33 @@
+package com.xtremeglory.stack;
+
+import com.xtremeglory.impl.AbstractStack;
+import com.xtremeglory.impl.Stack;
+import com.xtremeglory.impl.iteration.list.LinkedList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StackTest {
+    protected AbstractStack<Integer> getInstance() {
+        return new Stack<>(new LinkedList<>());
+    }
+
+    @Test
+    public void pushPop() {
+        AbstractStack<Integer> stack = this.getInstance();
+        Assert.assertTrue(stack.isEmpty());
+        for (int i = 0; i < 1000; ++i) {
+            stack.push(i);
+            Assert.assertEquals((long) stack.top(), i);
+        }
+        Assert.assertEquals(stack.size(), 1000);
+        for (int i = 999; i >= 0; --i) {
+            Assert.assertEquals((long) stack.pop(), i);
+        }
+        Assert.assertTrue(stack.isEmpty());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void popEmpty() {
+        this.getInstance().pop();
+    }
+}
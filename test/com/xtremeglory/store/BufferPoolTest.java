@@ -0,0 +1,105 @@
+package com.xtremeglory.store;
+
+import com.xtremeglory.impl.paged.KeyCodec;
+import com.xtremeglory.impl.paged.store.BufferPool;
+import com.xtremeglory.impl.paged.tree.btree.PagedBTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BufferPoolTest {
+    @Test
+    public void clockEviction() throws IOException {
+        Path file = Files.createTempFile("pool", ".db");
+        try (BufferPool pool = new BufferPool(file, 64, 64 * 4)) {
+            Assert.assertEquals(pool.getFrameCount(), 4);
+            pool.grow(10);
+            for (int page = 0; page < 10; ++page) {
+                ByteBuffer buffer = pool.pin(page);
+                Assert.assertEquals(buffer.getInt(0), 0);
+                buffer.putInt(0, page + 100);
+                pool.unpin(page, true);
+            }
+            Assert.assertEquals(pool.getMissCount(), 10);
+            Assert.assertEquals(pool.getEvictionCount(), 6);
+            Assert.assertEquals(pool.getWriteBackCount(), 6);
+
+            // 被淘汰的页面从文件中读回修改后的内容
+            for (int page = 0; page < 10; ++page) {
+                Assert.assertEquals(pool.pin(page).getInt(0), page + 100);
+                pool.unpin(page, false);
+            }
+            // 反复访问的页面留在缓存中
+            pool.resetStatistics();
+            for (int i = 0; i < 100; ++i) {
+                pool.pin(0);
+                pool.unpin(0, false);
+            }
+            Assert.assertEquals(pool.getHitCount(), 99);
+            Assert.assertEquals(pool.getMissCount(), 1);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void allPinned() throws IOException {
+        Path file = Files.createTempFile("pool", ".db");
+        try (BufferPool pool = new BufferPool(file, 64, 64 * 2)) {
+            pool.grow(3);
+            pool.pin(0);
+            pool.pin(1);
+            pool.pin(2);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void pagedBTree() throws IOException {
+        Path file = Files.createTempFile("pool", ".db");
+        try {
+            Random random = new Random(37);
+            TreeSet<Integer> expected = new TreeSet<>();
+            // 16个帧远小于树的页面数, 迫使叶子频繁被淘汰与写回
+            try (PagedBTree<Integer> bt = new PagedBTree<>(new BufferPool(file, 128, 128 * 16), KeyCodec.INTEGER)) {
+                for (int i = 0; i < 20000; ++i) {
+                    int value = random.nextInt(10000);
+                    if (random.nextInt(3) == 0) {
+                        bt.remove(value);
+                        expected.remove(value);
+                    } else {
+                        bt.insert(value);
+                        expected.add(value);
+                    }
+                }
+                Assert.assertTrue(bt.pageCount() > 256);
+            }
+            BufferPool pool = new BufferPool(file, 128, 128 * 64);
+            try (PagedBTree<Integer> bt = new PagedBTree<>(pool, KeyCodec.INTEGER)) {
+                Assert.assertEquals(bt.size(), expected.size());
+                Iterator<Integer> iterator = bt.iterator();
+                for (int value : expected) {
+                    Assert.assertEquals((long) iterator.next(), value);
+                }
+                Assert.assertFalse(iterator.hasNext());
+                pool.resetStatistics();
+                for (int i = 0; i < 1000; ++i) {
+                    bt.find(random.nextInt(10000));
+                }
+                // 上层节点常驻缓存, 只有下层节点未命中
+                Assert.assertTrue(pool.hitRatio() > 0.5);
+                Assert.assertTrue(pool.getEvictionCount() > 0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.recursion.tree.bplustree.BPlusTree;
+import com.xtremeglory.list.ListTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BPlusTreeTest {
+    protected static void assertSame(BPlusTree<Integer> tree, TreeSet<Integer> expected) {
+        Assert.assertEquals(tree.size(), expected.size());
+        new ListTest().assertOrder(tree.asList(), true);
+        Iterator<Integer> iterator = tree.iterator();
+        for (int value : expected) {
+            Assert.assertEquals((long) iterator.next(), value);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void sequenceInsertRemove() {
+        int count = 3000;
+        for (int dim = 3; dim < 100; ++dim) {
+            BPlusTree<Integer> bt = new BPlusTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < count; ++i) {
+                bt.insert(i);
+                expected.add(i);
+            }
+            assertSame(bt, expected);
+            // 高度不超过 log_{min+1}(count) + 1
+            Assert.assertTrue(bt.height() <= Math.log(count) / Math.log((dim - 1) / 2 + 1) + 1);
+            for (int i = count - 1; i >= 0; i -= 2) {
+                bt.remove(i);
+                expected.remove(i);
+            }
+            assertSame(bt, expected);
+            for (int i = 0; i < count; ++i) {
+                bt.remove(i);
+            }
+            Assert.assertEquals(bt.size(), 0);
+            Assert.assertEquals(bt.height(), 1);
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    @Test
+    public void randomInsertRemove() {
+        Random random = new Random(11);
+        for (int dim = 3; dim < 100; dim += 3) {
+            BPlusTree<Integer> bt = new BPlusTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 6000; ++i) {
+                int value = random.nextInt(4000);
+                if (random.nextInt(3) == 0) {
+                    bt.remove(value);
+                    expected.remove(value);
+                } else {
+                    bt.insert(value);
+                    expected.add(value);
+                }
+                Assert.assertEquals(bt.contains(value), expected.contains(value));
+            }
+            assertSame(bt, expected);
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    @Test
+    public void rangeQuery() {
+        Random random = new Random(5);
+        BPlusTree<Integer> bt = new BPlusTree<>(8);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 3000; ++i) {
+            int value = random.nextInt(10000);
+            bt.insert(value);
+            expected.add(value);
+        }
+        for (int i = 0; i < 500; ++i) {
+            int from = random.nextInt(10200) - 100;
+            int to = from + random.nextInt(500);
+            boolean from_inclusive = random.nextBoolean(), to_inclusive = random.nextBoolean();
+            Iterator<Integer> iterator = bt.range(from, from_inclusive, to, to_inclusive);
+            for (int value : expected.subSet(from, from_inclusive, to, to_inclusive)) {
+                Assert.assertEquals((long) iterator.next(), value);
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void rangeNextPastBound() {
+        BPlusTree<Integer> bt = new BPlusTree<>(3);
+        for (int i = 0; i < 10; ++i) {
+            bt.insert(i);
+        }
+        Iterator<Integer> inclusive = bt.range(3, true, 5, true);
+        Assert.assertEquals((long) inclusive.next(), 3);
+        Assert.assertEquals((long) inclusive.next(), 4);
+        Assert.assertEquals((long) inclusive.next(), 5);
+        Assert.assertFalse(inclusive.hasNext());
+        try {
+            inclusive.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // 超出区间上界后不能继续返回元素
+        }
+        Iterator<Integer> exclusive = bt.range(3, true, 5, false);
+        Assert.assertEquals((long) exclusive.next(), 3);
+        Assert.assertEquals((long) exclusive.next(), 4);
+        Assert.assertFalse(exclusive.hasNext());
+        try {
+            exclusive.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // 同上
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.recursion.tree.btree.BTreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class BTreeMapTest {
+    protected static void assertSame(BTreeMap<Integer, String> map, TreeMap<Integer, String> expected) {
+        Assert.assertEquals(map.size(), expected.size());
+        BTreeMap<Integer, String>.EntryCursor cursor = map.cursor();
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(cursor.getKey(), entry.getKey());
+            Assert.assertEquals(cursor.getValue(), entry.getValue());
+        }
+        Assert.assertFalse(cursor.next());
+        Assert.assertEquals(map.firstKey(), expected.isEmpty() ? null : expected.firstKey());
+        Assert.assertEquals(map.lastKey(), expected.isEmpty() ? null : expected.lastKey());
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(17);
+        for (int dim = 3; dim < 70; dim += 6) {
+            BTreeMap<Integer, String> map = new BTreeMap<>(dim);
+            TreeMap<Integer, String> expected = new TreeMap<>();
+            for (int i = 0; i < 6000; ++i) {
+                int key = random.nextInt(2000);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        Assert.assertEquals(map.remove(key), expected.remove(key));
+                        break;
+                    case 1:
+                        Assert.assertEquals(map.computeIfAbsent(key, k -> "c" + k), expected.computeIfAbsent(key, k -> "c" + k));
+                        break;
+                    default:
+                        Assert.assertEquals(map.put(key, "v" + i), expected.put(key, "v" + i));
+                }
+                Assert.assertEquals(map.get(key), expected.get(key));
+                Assert.assertEquals(map.containsKey(key), expected.containsKey(key));
+            }
+            assertSame(map, expected);
+            for (int key = 0; key < 2000; ++key) {
+                Assert.assertEquals(map.remove(key), expected.remove(key));
+            }
+            Assert.assertEquals(map.size(), 0);
+            Assert.assertEquals(map.height(), 1);
+            Assert.assertFalse(map.cursor().next());
+        }
+    }
+
+    @Test
+    public void sequence() {
+        BTreeMap<Integer, String> map = new BTreeMap<>(5, Comparator.<Integer>reverseOrder());
+        TreeMap<Integer, String> expected = new TreeMap<>(Comparator.reverseOrder());
+        for (int i = 0; i < 5000; ++i) {
+            map.put(i, Integer.toString(i));
+            expected.put(i, Integer.toString(i));
+        }
+        assertSame(map, expected);
+        StringBuilder keys = new StringBuilder();
+        map.forEach((key, value) -> {
+            Assert.assertEquals(value, Integer.toString(key));
+            if (key >= 4997) {
+                keys.append(key);
+            }
+        });
+        Assert.assertEquals(keys.toString(), "499949984997");
+        for (int i = 0; i < 5000; i += 2) {
+            map.remove(i);
+            expected.remove(i);
+        }
+        assertSame(map, expected);
+    }
+
+    @Test
+    public void cursor() {
+        BTreeMap<Integer, String> map = new BTreeMap<>(4);
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, null);
+        }
+        // 值为null的条目同样存在
+        Assert.assertTrue(map.containsKey(50));
+        Assert.assertNull(map.get(50));
+        Assert.assertNull(map.computeIfAbsent(200, key -> null));
+        Assert.assertFalse(map.containsKey(200));
+
+        BTreeMap<Integer, String>.EntryCursor cursor = map.cursor();
+        try {
+            cursor.getKey();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 第一次调用next之前没有当前条目
+        }
+        while (cursor.next()) {
+            cursor.setValue("v" + cursor.getKey());
+        }
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(map.get(i), "v" + i);
+        }
+
+        cursor = map.cursor();
+        cursor.next();
+        map.put(0, "replaced");
+        cursor.next();
+        map.put(1000, "new");
+        try {
+            cursor.next();
+            Assert.fail();
+        } catch (ConcurrentModificationException e) {
+            // 插入新键是结构修改
+        }
+    }
+}
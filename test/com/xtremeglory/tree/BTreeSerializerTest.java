@@ -0,0 +1,171 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.io.BTreeSerializer;
+import com.xtremeglory.impl.io.ElementCodec;
+import com.xtremeglory.impl.io.Utf8;
+import com.xtremeglory.impl.recursion.tree.btree.BTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BTreeSerializerTest {
+    private static <E extends Comparable<E>> byte[] write(BTree<E> tree, ElementCodec<E> codec, int buffer_size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BTreeSerializer.write(tree, codec, Channels.newChannel(out), buffer_size);
+        return out.toByteArray();
+    }
+
+    private static <E extends Comparable<E>> BTree<E> read(byte[] bytes, ElementCodec<E> codec, Comparator<? super E> comparator, int buffer_size) throws IOException {
+        return BTreeSerializer.read(Channels.newChannel(new ByteArrayInputStream(bytes)), codec, 1, comparator, buffer_size);
+    }
+
+    private static <E extends Comparable<E>> void assertSame(BTree<E> tree, Iterable<E> expected) {
+        Iterator<E> iterator = tree.iterator();
+        for (E element : expected) {
+            Assert.assertEquals(iterator.next(), element);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void integerRoundTrip() throws IOException {
+        Random random = new Random(5);
+        for (int dim = 3; dim < 70; dim += 11) {
+            BTree<Integer> bt = new BTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 5000; ++i) {
+                int value = random.nextInt();
+                bt = bt.insert(value);
+                expected.add(value);
+            }
+            // 定长编码没有长度前缀
+            byte[] bytes = write(bt, ElementCodec.INTEGER, 1024);
+            Assert.assertEquals(bytes.length, 20 + 4 * expected.size());
+            BTree<Integer> loaded = read(bytes, ElementCodec.INTEGER, null, 64);
+            Assert.assertEquals(loaded.getDIM(), dim);
+            Assert.assertEquals(loaded.size(), expected.size());
+            BTreeTest.keepFeature(loaded);
+            assertSame(loaded, expected);
+            loaded = loaded.insert(Integer.MIN_VALUE);
+            Assert.assertEquals((int) loaded.min(), Integer.MIN_VALUE);
+        }
+    }
+
+    @Test
+    public void stringRoundTrip() throws IOException {
+        Comparator<String> reversed = Comparator.reverseOrder();
+        BTree<String> bt = new BTree<>(7, reversed);
+        TreeSet<String> expected = new TreeSet<>(reversed);
+        char[] long_value = new char[300];
+        Arrays.fill(long_value, '中');
+        for (String value : new String[]{"", "a", "ab", "é", "中文", "😀", new String(long_value)}) {
+            bt = bt.insert(value);
+            expected.add(value);
+        }
+        for (int i = 0; i < 1000; ++i) {
+            bt = bt.insert("key-" + i);
+            expected.add("key-" + i);
+        }
+        // 缓冲区小于单个元素时也能正确读写
+        for (int buffer_size : new int[]{16, 100, 1 << 16}) {
+            BTree<String> loaded = read(write(bt, ElementCodec.STRING, buffer_size), ElementCodec.STRING, reversed, buffer_size);
+            Assert.assertEquals(loaded.size(), expected.size());
+            assertSame(loaded, expected);
+        }
+    }
+
+    @Test
+    public void loneSurrogateRoundTrip() throws IOException {
+        // 单独的代理字符如果被替换为'?', "\uD800x"与"?x"会变成重复元素, 读取时bulkLoad拒绝非严格升序的输入
+        BTree<String> bt = new BTree<>(3);
+        TreeSet<String> expected = new TreeSet<>();
+        for (String value : new String[]{"\uD800x", "?x", "\uD800", "?", "\uDC00", "\uDC00\uD800", "\uD83D\uDE00", "x\uDBFF"}) {
+            bt = bt.insert(value);
+            expected.add(value);
+        }
+        BTree<String> loaded = read(write(bt, ElementCodec.STRING, 16), ElementCodec.STRING, null, 16);
+        assertSame(loaded, expected);
+    }
+
+    @Test
+    public void utf8() {
+        StringBuilder builder = new StringBuilder();
+        for (char c = 1; c != 0; ++c) {
+            builder.setLength(0);
+            builder.append('a').append(c).append('b');
+            String value = builder.toString();
+            byte[] bytes = Utf8.encode(value);
+            Assert.assertEquals(bytes.length, Utf8.size(value));
+            Assert.assertEquals(Utf8.decode(ByteBuffer.wrap(bytes), bytes.length), value);
+            if (!Character.isSurrogate(c)) {
+                // 合法的字符串与标准UTF-8相同
+                Assert.assertArrayEquals(bytes, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        String pair = "\uD83D\uDE00";
+        Assert.assertArrayEquals(Utf8.encode(pair), pair.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void file() throws IOException {
+        Path file = Files.createTempFile("btree", ".bin");
+        try {
+            BTree<Long> bt = new BTree<>(16);
+            for (long i = 0; i < 100000; ++i) {
+                bt = bt.insert(i * 31);
+            }
+            BTreeSerializer.write(bt, ElementCodec.LONG, file);
+            BTree<Long> loaded = BTreeSerializer.read(file, ElementCodec.LONG);
+            Assert.assertEquals(loaded.size(), 100000);
+            Assert.assertEquals((long) loaded.max(), 99999 * 31);
+            Assert.assertEquals(loaded.rank(31000L), 1000);
+
+            BTreeSerializer.write(new BTree<Long>(5), ElementCodec.LONG, file);
+            Assert.assertEquals(BTreeSerializer.read(file, ElementCodec.LONG).size(), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void corrupted() throws IOException {
+        BTree<Integer> bt = new BTree<>(5);
+        for (int i = 0; i < 100; ++i) {
+            bt = bt.insert(i);
+        }
+        byte[] bytes = write(bt, ElementCodec.INTEGER, 1024);
+        try {
+            read(Arrays.copyOf(bytes, bytes.length - 1), ElementCodec.INTEGER, null, 1024);
+            Assert.fail();
+        } catch (EOFException e) {
+            // 文件被截断
+        }
+        try {
+            read(bytes, ElementCodec.LONG, null, 1024);
+            Assert.fail();
+        } catch (IOException e) {
+            // 编码方式不一致
+        }
+        bytes[0] = 0;
+        try {
+            read(bytes, ElementCodec.INTEGER, null, 1024);
+            Assert.fail();
+        } catch (IOException e) {
+            // 文件头错误
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.xtremeglory.tree;
 
+import com.xtremeglory.impl.List;
 import com.xtremeglory.impl.ValueBox;
 import com.xtremeglory.impl.Visitor;
+import com.xtremeglory.impl.iteration.list.ArrayList;
+import com.xtremeglory.impl.metrics.TreeStats;
 import com.xtremeglory.impl.recursion.tree.btree.BTree;
 import com.xtremeglory.list.ListTest;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+
 public class BTreeTest {
     protected static int minElementSize(BTree<Integer> tree) {
         return (tree.getDIM() - 1) / 2;
@@ -111,5 +122,348 @@ public class BTreeTest {
         }
     }
 
+    @Test
+    public void randomRemove() {
+        int count = 3000;
+        for (int dim = 3; dim < 100; ++dim) {
+            BTree<Integer> bt = new BTree<>(dim);
+            int total = 0;
+            for (int i = 0; i < count; ++i) {
+                int random = (int) (Math.random() * 10000);
+                if (!bt.contains(random)) {
+                    bt = bt.insert(random);
+                    total++;
+                }
+            }
+            for (int i = 0; i < count && bt != null; ++i) {
+                int random = (int) (Math.random() * 10000);
+                if (bt.contains(random)) {
+                    bt = bt.remove(random);
+                    total--;
+                    Assert.assertNull(bt == null ? null : bt.find(random));
+                }
+                if (bt != null) {
+                    keepFeature(bt);
+                    Assert.assertEquals(bt.size(), total);
+                }
+            }
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    @Test
+    public void rankSelect() {
+        for (int dim = 3; dim < 100; dim += 4) {
+            BTree<Integer> bt = new BTree<>(dim);
+            // 插入偶数
+            for (int i = 0; i < 3000; ++i) {
+                bt = bt.insert(2 * ((i * 7919) % 3000));
+            }
+            for (int i = 0; i < 3000; i += 2) {
+                bt = bt.remove(2 * i);
+            }
+            // 剩下 2, 6, 10, ... 即第k个元素为 4k + 2
+            Assert.assertEquals(bt.size(), 1500);
+            for (int k = 0; k < 1500; ++k) {
+                Assert.assertEquals((long) bt.select(k), 4 * k + 2);
+                Assert.assertEquals(bt.rank(4 * k + 2), k);
+                Assert.assertEquals(bt.rank(4 * k + 3), k + 1);
+                Assert.assertEquals(bt.rank(4 * k), k);
+            }
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    @Test
+    public void rangeQuery() {
+        Random random = new Random(7);
+        for (int dim = 3; dim < 100; dim += 4) {
+            BTree<Integer> bt = new BTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 2000; ++i) {
+                int value = random.nextInt(5000);
+                if (!bt.contains(value)) {
+                    bt = bt.insert(value);
+                    expected.add(value);
+                }
+            }
+            for (int i = 0; i < 300; ++i) {
+                int from = random.nextInt(5200) - 100;
+                int to = from + random.nextInt(400);
+                Assert.assertEquals(bt.floor(from), expected.floor(from));
+                Assert.assertEquals(bt.ceiling(from), expected.ceiling(from));
+                Assert.assertEquals(bt.lower(from), expected.lower(from));
+                Assert.assertEquals(bt.higher(from), expected.higher(from));
+
+                boolean from_inclusive = random.nextBoolean(), to_inclusive = random.nextBoolean();
+                Iterator<Integer> iterator = bt.range(from, from_inclusive, to, to_inclusive);
+                for (int value : expected.subSet(from, from_inclusive, to, to_inclusive)) {
+                    Assert.assertTrue(iterator.hasNext());
+                    Assert.assertEquals((long) iterator.next(), value);
+                }
+                Assert.assertFalse(iterator.hasNext());
+            }
+            // 无界区间等价于完整遍历
+            Iterator<Integer> iterator = bt.range(null, true, null, true);
+            for (int value : expected) {
+                Assert.assertEquals((long) iterator.next(), value);
+            }
+            Assert.assertFalse(iterator.hasNext());
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    @Test
+    public void bulkLoad() {
+        for (int dim = 3; dim < 100; ++dim) {
+            for (double fill_factor : new double[]{0, 0.5, 0.7, 1}) {
+                for (int count = 0; count < 3000; count += 1 + count / 4) {
+                    List<Integer> sorted = new ArrayList<>(count);
+                    for (int i = 0; i < count; ++i) {
+                        sorted.insert(2 * i, i);
+                    }
+                    BTree<Integer> bt = BTree.bulkLoad(sorted, dim, fill_factor);
+                    Assert.assertEquals(bt.size(), count);
+                    keepFeature(bt);
+                    if (count > 0) {
+                        // 构建后的树仍然可以正常插入与删除
+                        bt = bt.insert(1);
+                        bt = bt.remove(0);
+                        keepFeature(bt);
+                        Assert.assertEquals(bt.size(), count);
+                    }
+                }
+            }
+            System.out.println("dim: " + dim + " passed");
+        }
+    }
+
+    /**
+     * 递归切分到底, 每一部分的大小都是精确的, 并且按顺序拼接后与完整遍历一致
+     */
+    private static void splitAll(Spliterator<Integer> spliterator, java.util.List<Integer> output) {
+        long size = spliterator.estimateSize();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            int before = output.size();
+            spliterator.forEachRemaining(output::add);
+            Assert.assertEquals(output.size() - before, size);
+            return;
+        }
+        Assert.assertEquals(prefix.estimateSize() + spliterator.estimateSize(), size);
+        splitAll(prefix, output);
+        splitAll(spliterator, output);
+    }
+
+    @Test
+    public void spliterator() {
+        for (int dim = 3; dim < 40; dim += 3) {
+            BTree<Integer> bt = new BTree<>(dim);
+            for (int i = 0; i < 5000; ++i) {
+                bt = bt.insert(i * 7 % 5000);
+            }
+            Spliterator<Integer> spliterator = bt.spliterator();
+            Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.SUBSIZED));
+            java.util.List<Integer> output = new java.util.ArrayList<>();
+            splitAll(spliterator, output);
+            Assert.assertEquals(output.size(), 5000);
+            for (int i = 0; i < 5000; ++i) {
+                Assert.assertEquals((long) output.get(i), i);
+            }
+
+            Assert.assertEquals(bt.parallelStream().mapToLong(Integer::longValue).sum(), 5000L * 4999 / 2);
+            Assert.assertEquals(bt.parallelStream().filter(value -> value % 2 == 0).count(), 2500);
+            Spliterator<Integer> advancing = bt.spliterator();
+            advancing.trySplit();
+            long initial = advancing.estimateSize();
+            int[] count = new int[1];
+            while (advancing.tryAdvance(value -> count[0]++)) {
+                Assert.assertEquals(advancing.estimateSize(), initial - count[0]);
+            }
+            Assert.assertEquals(advancing.estimateSize(), 0);
+        }
+        Assert.assertEquals(new BTree<Integer>(3).stream().count(), 0);
+    }
+
+    @Test
+    public void stats() {
+        for (int dim = 3; dim < 20; ++dim) {
+            BTree<Integer> bt = new BTree<>(dim);
+            for (int i = 0; i < 2000; ++i) {
+                bt = bt.insert(i * 7919 % 2003);
+            }
+            TreeStats stats = bt.stats();
+            Assert.assertEquals(stats.getHeight(), bt.height());
+            Assert.assertEquals(stats.getElementCount(), bt.size());
+            long[] fill_distribution = stats.getFillDistribution();
+            long nodes = 0, elements = 0;
+            for (int k = 0; k < fill_distribution.length; ++k) {
+                nodes += fill_distribution[k];
+                elements += k * fill_distribution[k];
+                if (k < minElementSize(bt)) {
+                    // 只有根节点可能不满足最小元素个数
+                    Assert.assertTrue(fill_distribution[k] <= 1);
+                }
+            }
+            Assert.assertEquals(nodes, stats.getNodeCount());
+            // 叶子比内部节点多, 且没有children数组
+            Assert.assertTrue(stats.getLeafCount() * 2 > stats.getNodeCount());
+            Assert.assertTrue(stats.bytesPerElement() > 0);
+            Assert.assertEquals(elements, bt.size());
+            Assert.assertTrue(stats.fillFactor() > 0.3 && stats.fillFactor() <= 1);
+            Assert.assertTrue(stats.getBytes() > 0);
+        }
+        TreeStats stats = new BTree<Integer>(5).stats();
+        Assert.assertEquals(stats.getNodeCount(), 1);
+        Assert.assertEquals(stats.getLeafCount(), 1);
+        Assert.assertEquals(stats.getElementCount(), 0);
+    }
 
+    @Test
+    public void comparator() {
+        Comparator<Integer> reversed = Comparator.reverseOrder();
+        Random random = new Random(7);
+        for (int dim = 3; dim < 30; dim += 4) {
+            BTree<Integer> bt = new BTree<>(dim, reversed);
+            TreeSet<Integer> expected = new TreeSet<>(reversed);
+            for (int i = 0; i < 3000; ++i) {
+                int value = random.nextInt(2000);
+                if (random.nextInt(3) == 0) {
+                    bt = bt.remove(value);
+                    expected.remove(value);
+                } else {
+                    bt = bt.insert(value);
+                    expected.add(value);
+                }
+                if (bt == null) {
+                    bt = new BTree<>(dim, reversed);
+                }
+            }
+            Assert.assertSame(bt.getComparator(), reversed);
+            Assert.assertEquals(bt.size(), expected.size());
+            new ListTest().assertOrder(bt.asList(), false);
+            Iterator<Integer> iterator = bt.iterator();
+            for (int value : expected) {
+                Assert.assertEquals((long) iterator.next(), value);
+                Assert.assertEquals(bt.find(value), (Integer) value);
+            }
+            Assert.assertFalse(iterator.hasNext());
+            Assert.assertEquals(bt.min(), expected.first());
+            Assert.assertEquals(bt.floor(1000), expected.floor(1000));
+            Iterator<Integer> range = bt.range(1500, true, 500, false);
+            for (int value : expected.subSet(1500, true, 500, false)) {
+                Assert.assertEquals((long) range.next(), value);
+            }
+            Assert.assertFalse(range.hasNext());
+            Assert.assertSame(bt.spliterator().getComparator(), reversed);
+        }
+        BTree<Integer> loaded = BTree.bulkLoad(Arrays.asList(5, 4, 3, 2, 1).iterator(), 5, 3, 1, reversed);
+        Assert.assertEquals((int) loaded.min(), 5);
+        loaded = loaded.insert(0);
+        Assert.assertEquals((int) loaded.max(), 0);
+    }
+
+    /**
+     * rank与select互逆, 说明批量修改后每个节点的子树大小都是正确的
+     */
+    private static void checkRank(BTree<Integer> tree) {
+        for (int k = 0; k < tree.size(); ++k) {
+            Assert.assertEquals(tree.rank(tree.select(k)), k);
+        }
+        Assert.assertEquals(tree.stats().getHeight(), tree.height());
+    }
+
+    @Test
+    public void batchInsertRemove() {
+        Random random = new Random(23);
+        for (int dim = 3; dim < 40; dim += 3) {
+            BTree<Integer> bt = new BTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int round = 0; round < 60; ++round) {
+                // 批次大小从1到远大于节点容量, 取值区间有时密集有时稀疏
+                int range = random.nextBoolean() ? 3000 : 300;
+                TreeSet<Integer> batch = new TreeSet<>();
+                int count = 1 + random.nextInt(random.nextBoolean() ? 8 : 600);
+                for (int i = 0; i < count; ++i) {
+                    batch.add(random.nextInt(range));
+                }
+                Integer[] sorted = batch.toArray(new Integer[0]);
+                if (random.nextInt(5) < 3) {
+                    bt = bt.insertAll(sorted);
+                    expected.addAll(batch);
+                } else {
+                    bt = bt.removeAll(sorted);
+                    expected.removeAll(batch);
+                    if (bt == null) {
+                        Assert.assertTrue(expected.isEmpty());
+                        bt = new BTree<>(dim);
+                    }
+                }
+                Assert.assertEquals(bt.size(), expected.size());
+                keepFeature(bt);
+            }
+            checkRank(bt);
+            Iterator<Integer> iterator = bt.iterator();
+            for (int value : expected) {
+                Assert.assertEquals((long) iterator.next(), value);
+            }
+            Assert.assertFalse(iterator.hasNext());
+            Assert.assertNull(bt.removeAll(expected.toArray(new Integer[0])));
+        }
+    }
+
+    @Test
+    public void batchSequence() {
+        Integer[] sorted = new Integer[10000];
+        for (int i = 0; i < sorted.length; ++i) {
+            sorted[i] = i;
+        }
+        for (int dim = 3; dim < 70; dim += 11) {
+            BTree<Integer> bt = new BTree<Integer>(dim).insertAll(sorted, 0, 5000);
+            bt = bt.insertAll(sorted);
+            Assert.assertEquals(bt.size(), sorted.length);
+            keepFeature(bt);
+            checkRank(bt);
+            bt = bt.removeAll(sorted, 100, 9900);
+            Assert.assertEquals(bt.size(), 200);
+            keepFeature(bt);
+            checkRank(bt);
+            Assert.assertEquals((int) bt.select(100), 9900);
+        }
+        try {
+            new BTree<Integer>(5).insertAll(new Integer[]{1, 3, 2});
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 批次必须严格升序
+        }
+    }
+
+    @Test
+    public void rangeNextPastBound() {
+        BTree<Integer> bt = new BTree<>(3);
+        for (int i = 0; i < 10; ++i) {
+            bt = bt.insert(i);
+        }
+        Iterator<Integer> inclusive = bt.range(3, true, 5, true);
+        Assert.assertEquals((long) inclusive.next(), 3);
+        Assert.assertEquals((long) inclusive.next(), 4);
+        Assert.assertEquals((long) inclusive.next(), 5);
+        Assert.assertFalse(inclusive.hasNext());
+        try {
+            inclusive.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // 超出区间上界后不能继续返回元素
+        }
+        Iterator<Integer> exclusive = bt.range(3, true, 5, false);
+        Assert.assertEquals((long) exclusive.next(), 3);
+        Assert.assertEquals((long) exclusive.next(), 4);
+        Assert.assertFalse(exclusive.hasNext());
+        try {
+            exclusive.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // 同上
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.ValueBox;
+import com.xtremeglory.impl.recursion.tree.btree.ByteKeyBTree;
+import com.xtremeglory.impl.recursion.tree.btree.ByteKeys;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class ByteKeyBTreeTest {
+    protected static void keepFeature(ByteKeyBTree tree) {
+        // 排序性
+        byte[][] array = tree.toArray();
+        for (int i = 1; i < array.length; ++i) {
+            Assert.assertTrue(ByteKeys.compare(array[i - 1], array[i]) < 0);
+        }
+        // 节点个数性质
+        ValueBox<Boolean> enoughElementSize = new ValueBox<>(true);
+        tree.travelNode(t -> enoughElementSize.set(t == tree || (enoughElementSize.get() && t.getNodeSize() >= (t.getDIM() - 1) / 2)));
+        Assert.assertTrue(enoughElementSize.get());
+    }
+
+    /**
+     * 关键字共享较长的前缀, 且包含0字节和不足8个字节的关键字, 用于覆盖前缀比较和补0的边界情况
+     */
+    private static byte[] randomKey(Random random) {
+        byte[] key = new byte[random.nextInt(14)];
+        for (int i = 0; i < key.length; ++i) {
+            key[i] = i < 4 ? (byte) (i * 0x60) : (byte) (random.nextInt(3) * 0x7F);
+        }
+        return key;
+    }
+
+    @Test
+    public void randomInsertRemove() {
+        Random random = new Random(42);
+        for (boolean compressed : new boolean[]{false, true}) {
+            for (int dim = 3; dim < 60; dim += 7) {
+                ByteKeyBTree bt = new ByteKeyBTree(dim, compressed);
+                TreeSet<byte[]> expected = new TreeSet<>(ByteKeys::compare);
+                for (int i = 0; i < 4000; ++i) {
+                    byte[] key = randomKey(random);
+                    if (random.nextInt(3) == 0) {
+                        bt = bt.remove(key);
+                        expected.remove(key);
+                    } else {
+                        bt = bt.insert(key);
+                        expected.add(key);
+                    }
+                    Assert.assertEquals(bt.contains(key), expected.contains(key));
+                }
+                keepFeature(bt);
+                Assert.assertEquals(bt.size(), expected.size());
+                byte[][] array = bt.toArray();
+                int i = 0;
+                for (byte[] key : expected) {
+                    Assert.assertArrayEquals(array[i++], key);
+                }
+                Assert.assertArrayEquals(bt.min(), expected.first());
+                Assert.assertArrayEquals(bt.max(), expected.last());
+                for (byte[] key : expected) {
+                    bt = bt.remove(key);
+                }
+                Assert.assertEquals(bt.size(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void prefixCompression() {
+        ByteKeyBTree bt = new ByteKeyBTree(16, true);
+        for (int i = 0; i < 1000; ++i) {
+            bt = bt.insert(ByteKeys.concat(ByteKeys.of("tenant/0001/order"), ByteKeys.of(i)));
+        }
+        keepFeature(bt);
+        Assert.assertEquals(bt.size(), 1000);
+        // 所有关键字共享字符串部分以及整数的高位字节
+        int[] shortest = {Integer.MAX_VALUE};
+        bt.travelNode(t -> shortest[0] = Math.min(shortest[0], t.getPrefixLength()));
+        Assert.assertTrue(shortest[0] >= ByteKeys.of("tenant/0001/order").length);
+        Assert.assertTrue(bt.contains(ByteKeys.concat(ByteKeys.of("tenant/0001/order"), ByteKeys.of(500))));
+        Assert.assertFalse(bt.contains(ByteKeys.concat(ByteKeys.of("tenant/0001/order"), ByteKeys.of(1000))));
+        Assert.assertFalse(bt.contains(ByteKeys.of("tenant/0001/order")));
+        Assert.assertFalse(bt.contains(new byte[0]));
+    }
+
+    @Test
+    public void keyEncoding() {
+        int[] ints = {Integer.MIN_VALUE, -100, -1, 0, 1, 255, 256, Integer.MAX_VALUE};
+        for (int i = 1; i < ints.length; ++i) {
+            Assert.assertTrue(ByteKeys.compare(ByteKeys.of(ints[i - 1]), ByteKeys.of(ints[i])) < 0);
+        }
+        long[] longs = {Long.MIN_VALUE, -1L << 40, -1, 0, 1L << 40, Long.MAX_VALUE};
+        for (int i = 1; i < longs.length; ++i) {
+            Assert.assertTrue(ByteKeys.compare(ByteKeys.of(longs[i - 1]), ByteKeys.of(longs[i])) < 0);
+        }
+        String[] strings = {"", "\0", "\0\0", "\0a", "a", "a\0", "ab", "b", "é", "中"};
+        for (int i = 1; i < strings.length; ++i) {
+            Assert.assertTrue(ByteKeys.compare(ByteKeys.of(strings[i - 1]), ByteKeys.of(strings[i])) < 0);
+        }
+        // 元组按字段依次比较, 较短的字符串字段不会受到后面字段的影响
+        byte[] a = ByteKeys.concat(ByteKeys.of("a"), ByteKeys.of(Integer.MAX_VALUE));
+        byte[] ab = ByteKeys.concat(ByteKeys.of("ab"), ByteKeys.of(Integer.MIN_VALUE));
+        Assert.assertTrue(ByteKeys.compare(a, ab) < 0);
+        Assert.assertTrue(ByteKeys.compare(new byte[]{(byte) 0x80}, new byte[]{0x7F}) > 0);
+        Assert.assertTrue(ByteKeys.compare(new byte[9], new byte[10]) < 0);
+    }
+
+    @Test
+    public void loneSurrogateKeys() {
+        // 单独的代理字符不能与'?'编码为相同的字节串, 排序按代码单元值, 位于U+D7FF与U+E000之间
+        String[] strings = {"?", "\uD7FF", "\uD800", "\uD800x", "\uDBFF", "\uDC00", "\uDFFF", "\uE000"};
+        for (int i = 1; i < strings.length; ++i) {
+            Assert.assertTrue(ByteKeys.compare(ByteKeys.of(strings[i - 1]), ByteKeys.of(strings[i])) < 0);
+        }
+        ByteKeyBTree bt = new ByteKeyBTree(4);
+        for (String value : strings) {
+            bt = bt.insert(ByteKeys.of(value));
+        }
+        bt = bt.insert(ByteKeys.of("?"));
+        Assert.assertEquals(bt.size(), strings.length);
+        for (String value : strings) {
+            Assert.assertTrue(bt.contains(ByteKeys.of(value)));
+        }
+    }
+}
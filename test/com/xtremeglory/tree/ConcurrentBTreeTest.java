@@ -0,0 +1,139 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.concurrent.tree.btree.ConcurrentBTree;
+import com.xtremeglory.list.ListTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentBTreeTest {
+    protected static void assertSame(ConcurrentBTree<Integer> tree, TreeSet<Integer> expected) {
+        Assert.assertEquals(tree.size(), expected.size());
+        new ListTest().assertOrder(tree.asList(), true);
+        Iterator<Integer> iterator = tree.iterator();
+        for (int value : expected) {
+            Assert.assertEquals((long) iterator.next(), value);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    private static void runAll(Thread[] threads, AtomicReference<Throwable> failure) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @Test
+    public void randomInsertRemove() {
+        Random random = new Random(17);
+        for (int dim = 3; dim < 40; dim += 2) {
+            ConcurrentBTree<Integer> bt = new ConcurrentBTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 6000; ++i) {
+                int value = random.nextInt(3000);
+                if (random.nextInt(3) == 0) {
+                    Assert.assertSame(bt.remove(value), bt);
+                    expected.remove(value);
+                } else {
+                    Assert.assertSame(bt.insert(value), bt);
+                    expected.add(value);
+                }
+                if (i % 1000 == 0) {
+                    assertSame(bt, expected);
+                }
+            }
+            assertSame(bt, expected);
+            for (int value : expected) {
+                Assert.assertEquals((long) bt.find(value), value);
+            }
+            for (int value = 0; value < 3000; ++value) {
+                bt.remove(value);
+            }
+            Assert.assertEquals(bt.size(), 0);
+            Assert.assertFalse(bt.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void concurrentInsert() throws InterruptedException {
+        int threads_count = 4, count = 20000;
+        ConcurrentBTree<Integer> bt = new ConcurrentBTree<>(5);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[threads_count];
+        for (int t = 0; t < threads_count; ++t) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                // 交错的区间使各线程频繁落在同一叶子上
+                for (int i = offset; i < count; i += threads_count) {
+                    bt.insert(i);
+                }
+            });
+        }
+        runAll(threads, failure);
+
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < count; ++i) {
+            expected.add(i);
+        }
+        assertSame(bt, expected);
+    }
+
+    @Test
+    public void concurrentReadWrite() throws InterruptedException {
+        int writers_count = 3, readers_count = 3, count = 8000;
+        ConcurrentBTree<Integer> bt = new ConcurrentBTree<>(4);
+        // 偶数始终存在, 读线程只校验偶数; 写线程反复插入删除奇数
+        for (int i = 0; i < count; i += 2) {
+            bt.insert(i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[writers_count + readers_count];
+        for (int t = 0; t < writers_count; ++t) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 30000; ++i) {
+                    int value = random.nextInt(count) | 1;
+                    if (random.nextBoolean()) {
+                        bt.insert(value);
+                    } else {
+                        bt.remove(value);
+                    }
+                }
+            });
+        }
+        for (int t = writers_count; t < threads.length; ++t) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 30000; ++i) {
+                    int value = random.nextInt(count) & ~1;
+                    Assert.assertEquals((long) bt.find(value), value);
+                }
+            });
+        }
+        runAll(threads, failure);
+
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int value : bt) {
+            expected.add(value);
+        }
+        assertSame(bt, expected);
+        for (int i = 0; i < count; i += 2) {
+            Assert.assertTrue(expected.contains(i));
+        }
+        for (int i = 1; i < count; i += 2) {
+            bt.remove(i);
+        }
+        Assert.assertEquals(bt.size(), count / 2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.ValueBox;
+import com.xtremeglory.impl.recursion.tree.btree.IntBTree;
+import com.xtremeglory.impl.recursion.tree.btree.LongBTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class IntBTreeTest {
+    protected static void keepFeature(IntBTree tree) {
+        // 排序性
+        int[] array = tree.toArray();
+        for (int i = 1; i < array.length; ++i) {
+            Assert.assertTrue(array[i - 1] < array[i]);
+        }
+        // 节点个数性质
+        ValueBox<Boolean> enoughElementSize = new ValueBox<>(true);
+        tree.travelNode(t -> enoughElementSize.set(t == tree || (enoughElementSize.get() && t.getNodeSize() >= (t.getDIM() - 1) / 2)));
+        Assert.assertTrue(enoughElementSize.get());
+    }
+
+    @Test
+    public void sequenceInsertRemove() {
+        int count = 3000;
+        for (int dim = 3; dim < 100; dim += 7) {
+            IntBTree bt = new IntBTree(dim);
+            for (int i = 0; i < count; ++i) {
+                bt = bt.insert(i);
+            }
+            keepFeature(bt);
+            Assert.assertEquals(bt.size(), count);
+            for (int i = count - 1; i >= 0; --i) {
+                bt = bt.remove(i);
+            }
+            Assert.assertEquals(bt.size(), 0);
+        }
+    }
+
+    @Test
+    public void randomInsertRemove() {
+        Random random = new Random(42);
+        for (int dim = 3; dim < 100; dim += 5) {
+            IntBTree bt = new IntBTree(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 3000; ++i) {
+                int value = random.nextInt(5000);
+                if (random.nextInt(3) == 0) {
+                    bt = bt.remove(value);
+                    expected.remove(value);
+                } else if (!bt.contains(value)) {
+                    bt = bt.insert(value);
+                    expected.add(value);
+                }
+                Assert.assertEquals(bt.contains(value), expected.contains(value));
+            }
+            keepFeature(bt);
+            Assert.assertArrayEquals(bt.toArray(), expected.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @Test
+    public void longKeys() {
+        LongBTree bt = new LongBTree(7);
+        for (long i = 0; i < 3000; ++i) {
+            bt = bt.insert(i * 3_000_000_000L);
+        }
+        Assert.assertTrue(bt.contains(2999 * 3_000_000_000L));
+        Assert.assertFalse(bt.contains(1));
+        Assert.assertEquals(bt.min(), 0);
+        Assert.assertEquals(bt.max(), 2999 * 3_000_000_000L);
+        for (long i = 0; i < 3000; i += 2) {
+            bt = bt.remove(i * 3_000_000_000L);
+        }
+        Assert.assertEquals(bt.size(), 1500);
+        Assert.assertEquals(bt.min(), 3_000_000_000L);
+    }
+}
@@ -0,0 +1,113 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.paged.KeyCodec;
+import com.xtremeglory.impl.paged.store.MappedPageStore;
+import com.xtremeglory.impl.paged.tree.btree.PagedBTree;
+import com.xtremeglory.list.ListTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class PagedBTreeTest {
+    protected static void assertSame(PagedBTree<Integer> tree, TreeSet<Integer> expected) {
+        Assert.assertEquals(tree.size(), expected.size());
+        new ListTest().assertOrder(tree.asList(), true);
+        Iterator<Integer> iterator = tree.iterator();
+        for (int value : expected) {
+            Assert.assertEquals((long) iterator.next(), value);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void randomInsertRemove() throws IOException {
+        Random random = new Random(31);
+        // 页面大小决定了DIM: 64字节时为6, 128字节时为14
+        for (int page_size : new int[]{36, 64, 128, 4096}) {
+            Path file = Files.createTempFile("btree", ".db");
+            try (PagedBTree<Integer> bt = new PagedBTree<>(new MappedPageStore(file, page_size), KeyCodec.INTEGER)) {
+                Assert.assertEquals(bt.getDIM(), PagedBTree.maxDIM(page_size, Integer.BYTES));
+                TreeSet<Integer> expected = new TreeSet<>();
+                for (int i = 0; i < 8000; ++i) {
+                    int value = random.nextInt(4000);
+                    if (random.nextInt(3) == 0) {
+                        bt.remove(value);
+                        expected.remove(value);
+                    } else {
+                        bt.insert(value);
+                        expected.add(value);
+                    }
+                }
+                assertSame(bt, expected);
+                for (int value : expected) {
+                    Assert.assertEquals((long) bt.find(value), value);
+                }
+                Assert.assertNull(bt.find(-1));
+                for (int value = 0; value < 4000; ++value) {
+                    bt.remove(value);
+                }
+                Assert.assertEquals(bt.size(), 0);
+                Assert.assertEquals(bt.height(), 1);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        Path file = Files.createTempFile("btree", ".db");
+        try {
+            TreeSet<Long> expected = new TreeSet<>();
+            try (PagedBTree<Long> bt = new PagedBTree<>(new MappedPageStore(file, 256), KeyCodec.LONG, 5)) {
+                for (long i = 0; i < 5000; ++i) {
+                    bt.insert(i * 7919 % 5003);
+                    expected.add(i * 7919 % 5003);
+                }
+            }
+            // 重新打开时以文件头为准, 传入的DIM被忽略
+            try (PagedBTree<Long> bt = new PagedBTree<>(new MappedPageStore(file, 256), KeyCodec.LONG, 9)) {
+                Assert.assertEquals(bt.getDIM(), 5);
+                Assert.assertEquals(bt.size(), expected.size());
+                Iterator<Long> iterator = bt.iterator();
+                for (long value : expected) {
+                    Assert.assertEquals((long) iterator.next(), value);
+                }
+                Assert.assertFalse(iterator.hasNext());
+                bt.insert(-1L);
+                Assert.assertEquals((long) bt.find(-1L), -1L);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void reusePages() throws IOException {
+        Path file = Files.createTempFile("btree", ".db");
+        try (PagedBTree<Integer> bt = new PagedBTree<>(new MappedPageStore(file, 64), KeyCodec.INTEGER)) {
+            for (int round = 0; round < 5; ++round) {
+                for (int i = 0; i < 2000; ++i) {
+                    bt.insert(i);
+                }
+                for (int i = 0; i < 2000; ++i) {
+                    bt.remove(i);
+                }
+            }
+            int pages = bt.pageCount();
+            for (int i = 0; i < 2000; ++i) {
+                bt.insert(i);
+            }
+            // 删除释放的页面被重新分配, 文件不会继续增长
+            Assert.assertEquals(bt.pageCount(), pages);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
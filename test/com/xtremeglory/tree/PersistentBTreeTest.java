@@ -0,0 +1,98 @@
+package com.xtremeglory.tree;
+
+import com.xtremeglory.impl.recursion.tree.btree.PersistentBTree;
+import com.xtremeglory.list.ListTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class PersistentBTreeTest {
+    protected static void assertSame(PersistentBTree<Integer> tree, TreeSet<Integer> expected) {
+        Assert.assertEquals(tree.size(), expected.size());
+        new ListTest().assertOrder(tree.asList(), true);
+        Iterator<Integer> iterator = tree.iterator();
+        for (int value : expected) {
+            Assert.assertEquals((long) iterator.next(), value);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void randomInsertRemove() {
+        Random random = new Random(23);
+        for (int dim = 3; dim < 60; dim += 2) {
+            PersistentBTree<Integer> bt = new PersistentBTree<>(dim);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 6000; ++i) {
+                int value = random.nextInt(3000);
+                if (random.nextInt(3) == 0) {
+                    bt = bt.remove(value);
+                    expected.remove(value);
+                } else {
+                    bt = bt.insert(value);
+                    expected.add(value);
+                }
+            }
+            assertSame(bt, expected);
+            Assert.assertTrue(bt.height() <= Math.log(expected.size()) / Math.log((dim - 1) / 2 + 1) + 1);
+            for (int value : expected) {
+                Assert.assertEquals((long) bt.find(value), value);
+            }
+            for (int value = 0; value < 3000; ++value) {
+                bt = bt.remove(value);
+            }
+            Assert.assertEquals(bt.size(), 0);
+            Assert.assertEquals(bt.height(), 1);
+            Assert.assertFalse(bt.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void versions() {
+        Random random = new Random(29);
+        PersistentBTree<Integer> bt = new PersistentBTree<>(5);
+        java.util.ArrayList<PersistentBTree<Integer>> versions = new java.util.ArrayList<>();
+        java.util.ArrayList<TreeSet<Integer>> expected = new java.util.ArrayList<>();
+        TreeSet<Integer> current = new TreeSet<>();
+        for (int v = 0; v < 50; ++v) {
+            for (int i = 0; i < 100; ++i) {
+                int value = random.nextInt(1000);
+                if (random.nextBoolean()) {
+                    bt = bt.insert(value);
+                    current.add(value);
+                } else {
+                    bt = bt.remove(value);
+                    current.remove(value);
+                }
+            }
+            versions.add(bt.snapshot());
+            expected.add(new TreeSet<>(current));
+        }
+        // 之后的修改不影响任何旧版本
+        for (int v = 0; v < versions.size(); ++v) {
+            assertSame(versions.get(v), expected.get(v));
+        }
+        Assert.assertSame(bt.insert(expected.get(49).first()), bt);
+        Assert.assertSame(bt.remove(-1), bt);
+    }
+
+    @Test
+    public void iterateWhileWriting() {
+        PersistentBTree<Integer> bt = new PersistentBTree<>(4);
+        for (int i = 0; i < 1000; ++i) {
+            bt = bt.insert(i);
+        }
+        PersistentBTree<Integer> snapshot = bt.snapshot();
+        int expected = 0;
+        for (int value : snapshot) {
+            Assert.assertEquals(value, expected++);
+            bt = bt.remove(value).insert(value + 1000);
+        }
+        Assert.assertEquals(expected, 1000);
+        Assert.assertEquals(bt.size(), 1000);
+        Assert.assertEquals((long) bt.iterator().next(), 1000);
+    }
+}